@@ -0,0 +1,74 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.engine.BatchEvaluator;
+import chess.engine.PositionBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Positions evaluated per second by the scalar and the vector
+ * {@link BatchEvaluator}, on a batch of positions from random games, as in a
+ * post-game review or puzzle-mining job. The fork loads the vector module, so
+ * both paths run in the same JVM configuration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchEvaluationBenchmark {
+    private static final int POSITIONS = 4096;
+
+    @Param({"scalar", "vector"})
+    private String path;
+
+    private BatchEvaluator evaluator;
+    private final PositionBatch batch = new PositionBatch(POSITIONS);
+    private final int[] scores = new int[POSITIONS];
+
+    @Setup
+    public void setUp() {
+        evaluator = path.equals("vector") ? BatchEvaluator.vector() : BatchEvaluator.scalar();
+        SplittableRandom random = new SplittableRandom(1);
+        MoveList moves = new MoveList();
+        while (batch.size() < POSITIONS) {
+            ChessBoard board = new ChessGame().getBoard();
+            ChessGame.TeamColor side = ChessGame.TeamColor.WHITE;
+            for (int ply = 0; ply < 80 && batch.size() < POSITIONS; ply++) {
+                moves.clear();
+                MoveGenerator.legalMoves(board, side, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                board.applyMove(moves.get(random.nextInt(moves.size())));
+                side = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                batch.add(board, side);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int[] evaluate() {
+        evaluator.evaluate(batch, scores);
+        return scores;
+    }
+}
@@ -0,0 +1,98 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move validation and game-end detection on the shared chess core.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessGameBenchmark {
+
+    @Param
+    private Phase phase;
+
+    private ChessGame game;
+    private List<ChessPosition> movers;
+    private List<ChessMove> cycle;
+
+    @Setup
+    public void setUp() {
+        game = phase.game();
+        movers = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                var piece = game.getBoard().getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    movers.add(position);
+                }
+            }
+        }
+        cycle = phase.reversibleCycle();
+    }
+
+    /** validMoves for every piece of the side to move, as the client's highlight and the server do. */
+    @Benchmark
+    public int validMoves() {
+        int count = 0;
+        for (ChessPosition position : movers) {
+            count += game.validMoves(position).size();
+        }
+        return count;
+    }
+
+    /**
+     * Plays the cycle and takes it back, so the game's move history stays the
+     * same size however long the run; one operation is a make and an undo.
+     */
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public ChessGame makeMove() throws InvalidMoveException {
+        for (ChessMove move : cycle) {
+            game.makeMove(move);
+        }
+        for (int i = 0; i < cycle.size(); i++) {
+            game.undoMove();
+        }
+        return game;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(game.getTeamTurn());
+    }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import chess.ChessGame;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryAuthDAO;
+import dataaccess.MemoryGameDAO;
+import model.AuthData;
+import model.GameData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory DAO operations behind each HTTP and websocket request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataAccessBenchmark {
+    private static final int GAMES = 1_000;
+    private static final int TOKENS = 1_000;
+
+    private MemoryGameDAO gameDAO;
+    private MemoryAuthDAO authDAO;
+    private GameData[] games;
+    private String[] tokens;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws DataAccessException {
+        gameDAO = new MemoryGameDAO();
+        authDAO = new MemoryAuthDAO();
+        games = new GameData[GAMES];
+        for (int i = 0; i < GAMES; i++) {
+            int id = gameDAO.createGame(new GameData(0, "white", "black", "game" + i, new ChessGame()));
+            games[i] = gameDAO.getGame(id);
+        }
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = "token-" + i;
+            authDAO.createAuth(new AuthData(tokens[i], "user" + i));
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % GAMES;
+        return next;
+    }
+
+    @Benchmark
+    public GameData getGame() throws DataAccessException {
+        return gameDAO.getGame(games[nextIndex()].gameID());
+    }
+
+    @Benchmark
+    public void updateGame() throws DataAccessException {
+        gameDAO.updateGame(games[nextIndex()]);
+    }
+
+    @Benchmark
+    public int listGames() throws DataAccessException {
+        return gameDAO.getAllGames().size();
+    }
+
+    @Benchmark
+    public AuthData getAuth() throws DataAccessException {
+        return authDAO.getAuth(tokens[nextIndex() % TOKENS]);
+    }
+
+    /** A login followed by a logout: create then delete a token. */
+    @Benchmark
+    public void createAndDeleteAuth() throws DataAccessException {
+        String token = tokens[nextIndex() % TOKENS] + "-session";
+        authDAO.createAuth(new AuthData(token, "user"));
+        authDAO.deleteAuth(token);
+    }
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.Perft;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Representative positions the benchmarks run over, given as the placement
+ * and side-to-move fields of a FEN string.
+ */
+public enum Phase {
+    OPENING(Perft.START_POSITION),
+    MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w"),
+    ENDGAME("8/pp3k2/2n5/8/3N4/4K3/PP6/8 w");
+
+    private final String fen;
+
+    Phase(String fen) {
+        this.fen = fen;
+    }
+
+    public ChessGame game() {
+        return Perft.load(fen);
+    }
+
+    /**
+     * Finds four quiet piece moves (white, black, then both taken back) that
+     * return the game to where it started, so a benchmark can call makeMove
+     * repeatedly without the position drifting.
+     */
+    public List<ChessMove> reversibleCycle() {
+        ChessGame game = game();
+        for (ChessMove first : quietMoves(game)) {
+            ChessGame afterFirst = game();
+            play(afterFirst, first);
+            for (ChessMove second : quietMoves(afterFirst)) {
+                List<ChessMove> cycle = List.of(first, second, reverse(first), reverse(second));
+                ChessGame trial = game();
+                if (tryPlay(trial, cycle) && trial.equals(game)) {
+                    return cycle;
+                }
+            }
+        }
+        throw new IllegalStateException("No reversible move cycle in " + this);
+    }
+
+    private static List<ChessMove> quietMoves(ChessGame game) {
+        List<ChessMove> quiet = new ArrayList<>();
+        for (ChessMove move : game.legalMoves(game.getTeamTurn())) {
+            ChessPiece piece = game.getBoard().getPiece(move.getStartPosition());
+            if (piece.getPieceType() != ChessPiece.PieceType.PAWN
+                    && game.getBoard().getPiece(move.getEndPosition()) == null) {
+                quiet.add(move);
+            }
+        }
+        return quiet;
+    }
+
+    private static ChessMove reverse(ChessMove move) {
+        ChessPosition from = move.getStartPosition();
+        return new ChessMove(move.getEndPosition(), from, null);
+    }
+
+    private static boolean tryPlay(ChessGame game, List<ChessMove> moves) {
+        try {
+            for (ChessMove move : moves) {
+                game.makeMove(move);
+            }
+            return true;
+        } catch (InvalidMoveException e) {
+            return false;
+        }
+    }
+
+    private static void play(ChessGame game, ChessMove move) {
+        if (!tryPlay(game, List.of(move))) {
+            throw new IllegalStateException("Illegal move in " + move);
+        }
+    }
+}
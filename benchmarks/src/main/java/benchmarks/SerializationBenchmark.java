@@ -0,0 +1,85 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessJson;
+import chess.GameCodec;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trips of a game in each storage/wire format, as done by MySqlGameDAO
+ * on every read/write and by the websocket handler on every LOAD_GAME
+ * broadcast.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param
+    private Phase phase;
+
+    private final Gson gson = ChessJson.gson();
+    private ChessGame game;
+    private String json;
+    private String fen;
+    private final ByteBuffer buffer = ByteBuffer.allocate(GameCodec.SIZE);
+
+    @Setup
+    public void setUp() {
+        game = phase.game();
+        json = gson.toJson(game);
+        fen = game.toFen();
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public String toFen() {
+        return game.toFen();
+    }
+
+    @Benchmark
+    public ChessGame fromFen() {
+        return ChessGame.fromFen(fen);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeBinary() {
+        buffer.clear();
+        GameCodec.encode(game, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public ChessGame decodeBinary() {
+        buffer.clear();
+        GameCodec.encode(game, buffer);
+        buffer.flip();
+        return GameCodec.decode(buffer);
+    }
+}
@@ -1,6 +1,7 @@
 package client;
 
 import chess.ChessGame;
+import chess.ChessJson;
 import model.AuthData;
 import model.GameData;
 
@@ -14,7 +15,7 @@ public class ChessClient {
     private final String wsHost;
     private final int wsPort;
     private final Scanner scanner;
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessJson.gson();
 
     private AuthData auth;
     private GameData[] lastListedGames;
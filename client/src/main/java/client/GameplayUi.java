@@ -3,6 +3,7 @@ package client;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
+import chess.GameCodec;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -14,6 +15,7 @@ import org.glassfish.tyrus.client.ClientManager;
 import ui.BoardRenderer;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Scanner;
@@ -47,6 +49,7 @@ public final class GameplayUi {
                 public void onOpen(Session s, EndpointConfig c) {
                     sock[0] = s;
                     s.addMessageHandler(String.class, j -> onWsMessage(j, board, perspective, highlight));
+                    s.addMessageHandler(ByteBuffer.class, b -> onWsSnapshot(b, board, perspective, highlight));
                     wsSend(s, "CONNECT", gameId, null);
                 }
             }, ClientEndpointConfig.Builder.create().build(), URI.create(url));
@@ -103,12 +106,7 @@ public final class GameplayUi {
         try {
             JsonObject o = JsonParser.parseString(json).getAsJsonObject();
             switch (o.get("serverMessageType").getAsString()) {
-                case "LOAD_GAME" -> {
-                    board[0] = gson.fromJson(o.get("game"), ChessGame.class);
-                    hi.from = null;
-                    hi.to = Collections.emptySet();
-                    redrawGameplay(board[0], perspective, hi);
-                }
+                case "LOAD_GAME" -> loadGame(gson.fromJson(o.get("game"), ChessGame.class), board, perspective, hi);
                 case "NOTIFICATION" -> System.out.println(o.get("message").getAsString());
                 case "ERROR" -> System.out.println(o.get("errorMessage").getAsString());
                 default -> {
@@ -119,6 +117,24 @@ public final class GameplayUi {
         }
     }
 
+    /**
+     * A binary frame is a LOAD_GAME whose game is a {@link GameCodec} snapshot.
+     */
+    private void onWsSnapshot(ByteBuffer bytes, ChessGame[] board, ChessGame.TeamColor perspective, HighlightState hi) {
+        try {
+            loadGame(GameCodec.decode(bytes), board, perspective, hi);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Bad server message.");
+        }
+    }
+
+    private void loadGame(ChessGame game, ChessGame[] board, ChessGame.TeamColor perspective, HighlightState hi) {
+        board[0] = game;
+        hi.from = null;
+        hi.to = Collections.emptySet();
+        redrawGameplay(board[0], perspective, hi);
+    }
+
     private void tryHighlight(ChessGame game, ChessGame.TeamColor perspective, String[] p, HighlightState hi) {
         if (game == null) {
             System.out.println("No board yet.");
@@ -131,7 +147,7 @@ public final class GameplayUi {
         try {
             int row = Integer.parseInt(p[1]);
             int col = Integer.parseInt(p[2]);
-            ChessPosition at = new ChessPosition(row, col);
+            ChessPosition at = ChessPosition.of(row, col);
             if (game.getBoard().getPiece(at) == null) {
                 System.out.println("No piece on that square.");
                 return;
@@ -194,7 +210,7 @@ public final class GameplayUi {
             int sc = Integer.parseInt(p[2]);
             int er = Integer.parseInt(p[3]);
             int ec = Integer.parseInt(p[4]);
-            wsSend(s, "MAKE_MOVE", gameId, new ChessMove(new ChessPosition(sr, sc), new ChessPosition(er, ec), null));
+            wsSend(s, "MAKE_MOVE", gameId, new ChessMove(ChessPosition.of(sr, sc), ChessPosition.of(er, ec), null));
         } catch (NumberFormatException e) {
             System.out.println("Move needs four integers.");
         }
@@ -1,6 +1,7 @@
 package client;
 
 import chess.ChessGame;
+import chess.ChessJson;
 import com.google.gson.Gson;
 import model.AuthData;
 import model.GameData;
@@ -16,7 +17,7 @@ public class ServerFacade {
 
     private final String baseUrl;
     private final HttpClient httpClient;
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessJson.gson();
     private static final String AUTHORIZATION_HEADER = "authorization";
 
     public ServerFacade(String host, int port) {
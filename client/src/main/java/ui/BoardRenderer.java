@@ -52,7 +52,7 @@ public final class BoardRenderer {
 
             for (int colIndex = 0; colIndex < 8; colIndex++) {
                 int col = perspective == ChessGame.TeamColor.WHITE ? (1 + colIndex) : (8 - colIndex);
-                ChessPosition pos = new ChessPosition(row, col);
+                ChessPosition pos = ChessPosition.of(row, col);
                 ChessPiece piece = board.getPiece(pos);
 
                 String bg;
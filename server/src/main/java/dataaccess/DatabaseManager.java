@@ -1,5 +1,7 @@
 package dataaccess;
 
+import chess.GameFormat;
+
 import java.io.InputStream;
 import java.sql.*;
 import java.util.Properties;
@@ -9,6 +11,7 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static GameFormat gameFormat;
 
     /*
      * Load the database information for the db.properties file.
@@ -53,6 +56,15 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * The format new and updated game rows are written in, from the optional
+     * {@code db.gameFormat} property (JSON unless set). Rows in either format
+     * can always be read.
+     */
+    static GameFormat gameFormat() {
+        return gameFormat;
+    }
+
     private static void loadPropertiesFromResources() {
         try {
             Properties props = new Properties();
@@ -85,6 +97,7 @@ public class DatabaseManager {
         envOverride(props, "db.name", "CHESS_DB_NAME", "MYSQL_DATABASE");
         envOverride(props, "db.user", "CHESS_DB_USER", "MYSQL_USER");
         envOverride(props, "db.password", "CHESS_DB_PASSWORD", "MYSQL_PASSWORD");
+        envOverride(props, "db.gameFormat", "CHESS_DB_GAME_FORMAT");
     }
 
     private static void envOverride(Properties props, String key, String... envNames) {
@@ -101,6 +114,7 @@ public class DatabaseManager {
         databaseName = trimOrNull(props.getProperty("db.name"));
         dbUsername = trimOrNull(props.getProperty("db.user"));
         dbPassword = trimOrNull(props.getProperty("db.password"));
+        gameFormat = GameFormat.parse(props.getProperty("db.gameFormat"));
 
         var host = trimOrNull(props.getProperty("db.host"));
         var port = Integer.parseInt(props.getProperty("db.port"));
@@ -1,18 +1,34 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessJson;
+import chess.GameCodec;
+import chess.GameFormat;
 import com.google.gson.Gson;
 import model.GameData;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 
 public class MySqlGameDAO implements GameDAO {
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessJson.gson(GameFormat.JSON, true);
+    private final GameFormat storageFormat;
 
     public MySqlGameDAO() throws DataAccessException {
+        this(DatabaseManager.gameFormat());
+    }
+
+    /**
+     * @param storageFormat the format games are written in, each with the
+     *                      moves since the last capture or pawn move so
+     *                      repetitions survive a reload; rows written in
+     *                      any format are read back regardless
+     */
+    public MySqlGameDAO(GameFormat storageFormat) throws DataAccessException {
+        this.storageFormat = storageFormat;
         SqlSchema.createDatabaseAndTables();
     }
 
@@ -24,7 +40,7 @@ public class MySqlGameDAO implements GameDAO {
         String insertSql = "INSERT INTO game (whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)";
         try (var conn = DatabaseManager.getConnection();
              var ps = conn.prepareStatement(insertSql, java.sql.Statement.RETURN_GENERATED_KEYS)) {
-            bindGameRow(ps, game.whiteUsername(), game.blackUsername(), game.gameName(), gson.toJson(game.game()));
+            bindGameRow(ps, game.whiteUsername(), game.blackUsername(), game.gameName(), encode(game.game()));
             ps.executeUpdate();
             try (var keys = ps.getGeneratedKeys()) {
                 if (keys.next()) {
@@ -75,7 +91,7 @@ public class MySqlGameDAO implements GameDAO {
         }
         try (var conn = DatabaseManager.getConnection();
              var ps = conn.prepareStatement("UPDATE game SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?")) {
-            bindGameRow(ps, game.whiteUsername(), game.blackUsername(), game.gameName(), gson.toJson(game.game()));
+            bindGameRow(ps, game.whiteUsername(), game.blackUsername(), game.gameName(), encode(game.game()));
             ps.setInt(5, game.gameID());
             if (ps.executeUpdate() == 0) {
                 throw new DataAccessException("game does not exist");
@@ -95,11 +111,11 @@ public class MySqlGameDAO implements GameDAO {
         }
     }
 
-    private static void bindGameRow(java.sql.PreparedStatement ps, String white, String black, String name, String gameJson) throws SQLException {
+    private static void bindGameRow(java.sql.PreparedStatement ps, String white, String black, String name, byte[] game) throws SQLException {
         ps.setString(1, white);
         ps.setString(2, black);
         ps.setString(3, name);
-        ps.setString(4, gameJson);
+        ps.setBytes(4, game);
     }
 
     private GameData toGameData(ResultSet rs) throws SQLException {
@@ -108,8 +124,32 @@ public class MySqlGameDAO implements GameDAO {
                 rs.getString(2),
                 rs.getString(3),
                 rs.getString(4),
-                gson.fromJson(rs.getString(5), ChessGame.class)
+                decode(rs.getBytes(5))
         );
     }
+
+    private byte[] encode(ChessGame game) {
+        if (game != null && storageFormat == GameFormat.BINARY) {
+            return GameCodec.encodeWithHistory(game);
+        }
+        String text = game != null && storageFormat == GameFormat.FEN ? game.toFenWithHistory() : gson.toJson(game);
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private ChessGame decode(byte[] stored) throws SQLException {
+        try {
+            if (GameCodec.isSnapshot(stored)) {
+                return GameCodec.decode(stored);
+            }
+            // JSON rows are an object or null; any other text is a FEN string
+            String text = new String(stored, StandardCharsets.UTF_8).stripLeading();
+            if (text.startsWith("{") || text.equals("null")) {
+                return gson.fromJson(text, ChessGame.class);
+            }
+            return ChessGame.fromFen(text);
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("unreadable game column", e);
+        }
+    }
 }
 
@@ -23,7 +23,7 @@ public final class SqlSchema {
                 whiteUsername VARCHAR(256),
                 blackUsername VARCHAR(256),
                 gameName VARCHAR(256) NOT NULL,
-                game TEXT NOT NULL,
+                game BLOB NOT NULL,
                 PRIMARY KEY (gameID)
             )
             """,
@@ -43,9 +43,27 @@ public final class SqlSchema {
             for (String ddl : TABLE_DEFINITIONS) {
                 stmt.executeUpdate(ddl);
             }
+            migrateGameColumn(conn, stmt);
         } catch (SQLException e) {
             throw new DataAccessException("failed to initialize tables", e);
         }
     }
+
+    /**
+     * Older databases store the game as TEXT; binary snapshots need a BLOB.
+     * Converting keeps the existing JSON bytes, which are still readable.
+     */
+    private static void migrateGameColumn(Connection conn, Statement stmt) throws SQLException {
+        String typeSql = "SELECT DATA_TYPE FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = ? AND TABLE_NAME = 'game' AND COLUMN_NAME = 'game'";
+        try (var ps = conn.prepareStatement(typeSql)) {
+            ps.setString(1, conn.getCatalog());
+            try (var rs = ps.executeQuery()) {
+                if (rs.next() && rs.getString(1).equalsIgnoreCase("text")) {
+                    stmt.executeUpdate("ALTER TABLE game MODIFY game BLOB NOT NULL");
+                }
+            }
+        }
+    }
 }
 
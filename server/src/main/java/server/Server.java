@@ -1,5 +1,6 @@
 package server;
 
+import chess.GameFormat;
 import dataaccess.*;
 import io.javalin.Javalin;
 import io.javalin.websocket.WsHandlerType;
@@ -23,7 +24,7 @@ public class Server {
         UserHandler userHandler = new UserHandler(userService);
         GameHandler gameHandler = new GameHandler(gameService);
         ClearHandler clearHandler = new ClearHandler(userService, gameService);
-        GameWebSocketHandler webSocketHandler = new GameWebSocketHandler(data.gameDAO(), data.authDAO());
+        GameWebSocketHandler webSocketHandler = new GameWebSocketHandler(data.gameDAO(), data.authDAO(), wireFormat());
 
         javalin = Javalin.create(config -> config.staticFiles.add("web"));
         javalin.addWsHandler(WsHandlerType.WEBSOCKET, "/ws", ws -> {
@@ -64,6 +65,15 @@ public class Server {
         }
     }
 
+    /**
+     * The game encoding for websocket messages, from the {@code chess.wireFormat}
+     * system property or the {@code CHESS_WIRE_FORMAT} environment variable.
+     * Defaults to JSON, which every client understands.
+     */
+    private static GameFormat wireFormat() {
+        return GameFormat.parse(System.getProperty("chess.wireFormat", System.getenv("CHESS_WIRE_FORMAT")));
+    }
+
     private record DataAccessLayer(UserDAO userDAO, GameDAO gameDAO, AuthDAO authDAO) {
     }
 }
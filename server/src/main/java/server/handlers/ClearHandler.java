@@ -1,5 +1,6 @@
 package server.handlers;
 
+import chess.ChessJson;
 import com.google.gson.Gson;
 import dataaccess.DataAccessException;
 import io.javalin.http.Context;
@@ -11,7 +12,7 @@ import java.util.Map;
 public class ClearHandler {
     private final UserService userService;
     private final GameService gameService;
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessJson.gson();
 
     public ClearHandler(UserService userService, GameService gameService) {
         this.userService = userService;
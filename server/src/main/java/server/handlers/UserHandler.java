@@ -1,5 +1,6 @@
 package server.handlers;
 
+import chess.ChessJson;
 import com.google.gson.Gson;
 import dataaccess.DataAccessException;
 import io.javalin.http.Context;
@@ -16,7 +17,7 @@ import java.util.Map;
 
 public class UserHandler {
     private final UserService service;
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessJson.gson();
 
     public UserHandler(UserService service) {
         this.service = service;
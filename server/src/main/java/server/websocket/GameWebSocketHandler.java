@@ -1,7 +1,10 @@
 package server.websocket;
 
 import chess.ChessGame;
+import chess.ChessJson;
 import chess.ChessMove;
+import chess.GameCodec;
+import chess.GameFormat;
 import chess.InvalidMoveException;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
@@ -18,6 +21,7 @@ import model.AuthData;
 import model.GameData;
 import websocket.messages.ServerMessage;
 
+import java.nio.ByteBuffer;
 import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,12 +35,24 @@ public class GameWebSocketHandler {
 
     private final GameDAO gameDAO;
     private final AuthDAO authDAO;
-    private final Gson gson = new Gson();
+    private final Gson gson;
+    private final boolean binaryGames;
     private final ConcurrentHashMap<Integer, Set<WsContext>> byGame = new ConcurrentHashMap<>();
 
     public GameWebSocketHandler(GameDAO gameDAO, AuthDAO authDAO) {
+        this(gameDAO, authDAO, GameFormat.JSON);
+    }
+
+    /**
+     * @param wireFormat how LOAD_GAME messages encode the game; with
+     *                   {@link GameFormat#BINARY} they are sent as binary
+     *                   frames holding just the {@link GameCodec} snapshot
+     */
+    public GameWebSocketHandler(GameDAO gameDAO, AuthDAO authDAO, GameFormat wireFormat) {
         this.gameDAO = gameDAO;
         this.authDAO = authDAO;
+        this.gson = ChessJson.gson(wireFormat);
+        this.binaryGames = wireFormat == GameFormat.BINARY;
     }
 
     public void onMessage(WsMessageContext ctx) {
@@ -82,7 +98,12 @@ public class GameWebSocketHandler {
         ctx.attribute("gameID", gameID);
         ctx.attribute("username", auth.username());
         ctx.attribute("side", side);
-        ctx.send(gson.toJson(new ServerMessage(LOAD_GAME, null, null, game.game())));
+        ByteBuffer snapshot = binarySnapshot(game.game());
+        if (snapshot != null) {
+            ctx.send(snapshot);
+        } else {
+            ctx.send(gson.toJson(new ServerMessage(LOAD_GAME, null, null, game.game())));
+        }
         String who = auth.username();
         String msg = side == TeamColor.WHITE ? who + " joined as white"
                 : side == TeamColor.BLACK ? who + " joined as black"
@@ -128,27 +149,45 @@ public class GameWebSocketHandler {
             err(ctx, "Error: " + e.getMessage());
             return;
         }
+        recordMove(row, g, c.username + " moved: " + moveStr(mv), ctx);
+    }
+
+    /**
+     * Stores a game a move was just made in, sends it to everyone in the
+     * game, and ends the game if the move decided it.
+     *
+     * @param announcement the notification for everyone but the mover
+     * @param mover        the mover's session, or null to notify everyone
+     */
+    void recordMove(GameData row, ChessGame g, String announcement, WsContext mover) throws DataAccessException {
         gameDAO.updateGame(new GameData(row.gameID(), row.whiteUsername(), row.blackUsername(), row.gameName(), g));
-        row = gameDAO.getGame(c.gameID);
+        row = gameDAO.getGame(row.gameID());
         ChessGame updated = row.game();
-        broadcast(c.gameID, new ServerMessage(LOAD_GAME, null, null, updated), null);
-        notifyOthers(c.gameID, c.username + " moved: " + moveStr(mv), ctx);
+        broadcast(row.gameID(), new ServerMessage(LOAD_GAME, null, null, updated), null);
+        notifyOthers(row.gameID(), announcement, mover);
         TeamColor next = updated.getTeamTurn();
         String nextName = next == TeamColor.WHITE ? row.whiteUsername() : row.blackUsername();
         String nextLabel = nextName != null ? nextName : "player";
-        if (updated.isInCheckmate(next)) {
-            updated.setGameOver(true);
-            gameDAO.updateGame(new GameData(row.gameID(), row.whiteUsername(), row.blackUsername(), row.gameName(), updated));
-            broadcast(c.gameID, new ServerMessage(NOTIFICATION, nextLabel + " is in checkmate", null, null), null);
-        } else if (updated.isInStalemate(next)) {
-            updated.setGameOver(true);
-            gameDAO.updateGame(new GameData(row.gameID(), row.whiteUsername(), row.blackUsername(), row.gameName(), updated));
-            broadcast(c.gameID, new ServerMessage(NOTIFICATION, nextLabel + " is in stalemate", null, null), null);
-        } else if (updated.isInCheck(next)) {
-            broadcast(c.gameID, new ServerMessage(NOTIFICATION, nextLabel + " is in check", null, null), null);
+        // there is no way to claim a draw, so the server adjudicates claimable draws as soon as they arise
+        switch (updated.status()) {
+            case CHECKMATE -> endGame(row, updated, nextLabel + " is in checkmate");
+            case STALEMATE -> endGame(row, updated, nextLabel + " is in stalemate");
+            case INSUFFICIENT_MATERIAL -> endGame(row, updated, "Draw: neither side can checkmate");
+            case SEVENTY_FIVE_MOVE_RULE, FIFTY_MOVE_RULE ->
+                    endGame(row, updated, "Draw: " + updated.getHalfmoveClock() / 2 + " moves without a capture or pawn move");
+            case THREEFOLD_REPETITION -> endGame(row, updated, "Draw: the same position occurred three times");
+            case CHECK -> broadcast(row.gameID(), new ServerMessage(NOTIFICATION, nextLabel + " is in check", null, null), null);
+            default -> {
+            }
         }
     }
 
+    private void endGame(GameData row, ChessGame game, String message) throws DataAccessException {
+        game.setGameOver(true);
+        gameDAO.updateGame(new GameData(row.gameID(), row.whiteUsername(), row.blackUsername(), row.gameName(), game));
+        broadcast(row.gameID(), new ServerMessage(NOTIFICATION, message, null, null), null);
+    }
+
     private void leave(WsMessageContext ctx, JsonObject json) throws DataAccessException {
         Conn c = conn(ctx);
         if (c == null) {
@@ -225,7 +264,8 @@ public class GameWebSocketHandler {
     }
 
     private void broadcast(int gameID, ServerMessage msg, WsContext skip) {
-        String text = gson.toJson(msg);
+        ByteBuffer snapshot = msg.getServerMessageType() == LOAD_GAME ? binarySnapshot(msg.getGame()) : null;
+        String text = snapshot == null ? gson.toJson(msg) : null;
         Set<WsContext> set = byGame.get(gameID);
         if (set == null) {
             return;
@@ -235,12 +275,27 @@ public class GameWebSocketHandler {
                 continue;
             }
             try {
-                s.send(text);
+                if (snapshot != null) {
+                    s.send(snapshot.duplicate());
+                } else {
+                    s.send(text);
+                }
             } catch (Exception ignored) {
             }
         }
     }
 
+    /**
+     * @return the game as a read-only snapshot buffer when games go out as
+     * binary frames, otherwise null
+     */
+    private ByteBuffer binarySnapshot(ChessGame game) {
+        if (!binaryGames || game == null) {
+            return null;
+        }
+        return ByteBuffer.wrap(GameCodec.encode(game)).asReadOnlyBuffer();
+    }
+
     private void notifyOthers(int gameID, String text, WsContext except) {
         broadcast(gameID, new ServerMessage(NOTIFICATION, text, null, null), except);
     }
@@ -1,9 +1,14 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.GameFormat;
+import chess.InvalidMoveException;
 import model.GameData;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
+import static chess.TestGames.move;
 import static org.junit.jupiter.api.Assertions.*;
 
 class MySqlGameDAOTests extends MySqlDAOTestBase {
@@ -116,5 +121,23 @@ class MySqlGameDAOTests extends MySqlDAOTestBase {
         int id = gameDAO.createGame(new GameData(0, null, null, "after", new ChessGame()));
         assertNotNull(gameDAO.getGame(id));
     }
-}
 
+    @ParameterizedTest
+    @EnumSource(GameFormat.class)
+    @DisplayName("Stored games keep the moves a repetition check needs")
+    void historyRoundTrip(GameFormat format) throws DataAccessException, InvalidMoveException {
+        MySqlGameDAO dao = new MySqlGameDAO(format);
+        int id = dao.createGame(new GameData(0, null, null, "g1", new ChessGame()));
+        for (String text : "e2e4 g8f6 g1f3 f6g8 f3g1 g8f6 g1f3 f6g8 f3g1".split(" ")) {
+            GameData row = dao.getGame(id);
+            row.game().makeMove(move(text));
+            dao.updateGame(row);
+        }
+
+        ChessGame stored = dao.getGame(id).game();
+        assertEquals(8, stored.getHalfmoveClock());
+        assertEquals(8, stored.getMoveHistory().size());
+        assertEquals(2, stored.repetitions());
+        assertTrue(stored.isThreefoldRepetition());
+    }
+}
@@ -1,5 +1,6 @@
 package passoff.server;
 
+import chess.ChessJson;
 import com.google.gson.GsonBuilder;
 
 public class TestFactory {
@@ -32,7 +33,7 @@ public class TestFactory {
          * If you would like to change the way the web socket test cases serialize
          * or deserialize chess objects like ChessMove, you may add type adapters here.
          */
-        GsonBuilder builder = new GsonBuilder();
+        GsonBuilder builder = ChessJson.builder();
         // builder.registerTypeAdapter(ChessMove.class, /*type adapter or json serializer */);
         return builder;
     }
@@ -0,0 +1,41 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.GameFormat;
+import chess.InvalidMoveException;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryAuthDAO;
+import dataaccess.MySqlGameDAO;
+import model.GameData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static chess.TestGames.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameWebSocketHandlerTests {
+
+    @ParameterizedTest
+    @EnumSource(GameFormat.class)
+    @DisplayName("A threefold repetition ends the game whatever the storage format")
+    void threefoldRepetitionEndsGame(GameFormat format) throws DataAccessException, InvalidMoveException {
+        MySqlGameDAO gameDAO = new MySqlGameDAO(format);
+        gameDAO.clear();
+        GameWebSocketHandler handler = new GameWebSocketHandler(gameDAO, new MemoryAuthDAO(), format);
+        int id = gameDAO.createGame(new GameData(0, "alice", "bob", "repetition", new ChessGame()));
+
+        String[] moves = "e2e4 g8f6 g1f3 f6g8 f3g1 g8f6 g1f3 f6g8 f3g1".split(" ");
+        for (String text : moves) {
+            assertFalse(gameDAO.getGame(id).game().isGameOver(), "over before " + text);
+            GameData row = gameDAO.getGame(id);
+            ChessGame game = row.game();
+            game.makeMove(move(text));
+            handler.recordMove(row, game, "moved: " + text, null);
+        }
+
+        ChessGame stored = gameDAO.getGame(id).game();
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, stored.status());
+        assertTrue(stored.isGameOver());
+    }
+}
@@ -0,0 +1,172 @@
+package chess;
+
+/**
+ * Square numbering and bit-twiddling helpers shared by the bitboard code.
+ * <p>
+ * Squares are numbered 0-63 with a1 = 0, h1 = 7 and h8 = 63, so a square's
+ * row is {@code (square >>> 3) + 1} and its column is {@code (square & 7) + 1}.
+ */
+public final class Bitboards {
+    /** The light squares; a1 is dark. */
+    public static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    /** Squares a knight on the index square attacks. */
+    public static final long[] KNIGHT_ATTACKS = new long[64];
+    /** Squares a king on the index square attacks. */
+    public static final long[] KING_ATTACKS = new long[64];
+    /** Squares a pawn of the given color (by ordinal) on the index square attacks. */
+    public static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {-1, -1}, {1, -1}, {-1, 1}};
+    private static final int[][] KNIGHT_DELTAS = {
+            {2, 1}, {2, -1}, {1, 2}, {1, -2},
+            {-1, 2}, {-1, -2}, {-2, 1}, {-2, -1}
+    };
+
+    /*
+     * Rays run from a square to the edge of the board, excluding the square
+     * itself. Index 0-3 are the rook directions and 4-7 the bishop directions,
+     * in the order of the direction tables above: each direction is followed
+     * by its opposite, and the even ones head towards higher square numbers.
+     */
+    private static final long[][] RAYS = new long[8][64];
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int row = row(square);
+            int col = column(square);
+            for (int[] delta : KNIGHT_DELTAS) {
+                KNIGHT_ATTACKS[square] |= maskIfOnBoard(row + delta[0], col + delta[1]);
+            }
+            for (int dRow = -1; dRow <= 1; dRow++) {
+                for (int dCol = -1; dCol <= 1; dCol++) {
+                    if (dRow != 0 || dCol != 0) {
+                        KING_ATTACKS[square] |= maskIfOnBoard(row + dRow, col + dCol);
+                    }
+                }
+            }
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] =
+                    maskIfOnBoard(row + 1, col - 1) | maskIfOnBoard(row + 1, col + 1);
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] =
+                    maskIfOnBoard(row - 1, col - 1) | maskIfOnBoard(row - 1, col + 1);
+            for (int dir = 0; dir < 4; dir++) {
+                RAYS[dir][square] = ray(row, col, ROOK_DIRECTIONS[dir]);
+                RAYS[dir + 4][square] = ray(row, col, BISHOP_DIRECTIONS[dir]);
+            }
+        }
+        for (int from = 0; from < 64; from++) {
+            for (int dir = 0; dir < 8; dir++) {
+                long line = RAYS[dir][from] | RAYS[dir ^ 1][from] | bit(from);
+                for (long ray = RAYS[dir][from]; ray != 0; ray = dropFirst(ray)) {
+                    int to = first(ray);
+                    BETWEEN[from][to] = RAYS[dir][from] & RAYS[dir ^ 1][to];
+                    LINE[from][to] = line;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    public static int square(int row, int col) {
+        return ((row - 1) << 3) | (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(square);
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static boolean onBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    /**
+     * @return the lowest set square of a non-empty bitboard
+     */
+    public static int first(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * @return the bitboard with its lowest set square cleared
+     */
+    public static long dropFirst(long bitboard) {
+        return bitboard & (bitboard - 1);
+    }
+
+    /**
+     * @return the squares a rook on {@code square} attacks, stopping at (and
+     * including) the first occupied square in each direction
+     */
+    public static long rookAttacks(int square, long occupied) {
+        return rayAttacks(0, square, occupied) | rayAttacks(1, square, occupied)
+                | rayAttacks(2, square, occupied) | rayAttacks(3, square, occupied);
+    }
+
+    /**
+     * @return the squares a bishop on {@code square} attacks, stopping at (and
+     * including) the first occupied square in each direction
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        return rayAttacks(4, square, occupied) | rayAttacks(5, square, occupied)
+                | rayAttacks(6, square, occupied) | rayAttacks(7, square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on the same rank, file
+     * or diagonal, or an empty bitboard if they are not aligned
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return every square on the rank, file or diagonal through both squares
+     * (edge to edge), or an empty bitboard if they are not aligned
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    private static long rayAttacks(int dir, int square, long occupied) {
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if (blockers == 0) {
+            return ray;
+        }
+        int blocker = (dir & 1) == 0 ? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+        return ray ^ RAYS[dir][blocker];
+    }
+
+    private static long ray(int row, int col, int[] direction) {
+        long ray = 0;
+        for (int r = row + direction[0], c = col + direction[1]; onBoard(r, c); r += direction[0], c += direction[1]) {
+            ray |= bit(square(r, c));
+        }
+        return ray;
+    }
+
+    private static long maskIfOnBoard(int row, int col) {
+        return onBoard(row, col) ? bit(square(row, col)) : 0L;
+    }
+}
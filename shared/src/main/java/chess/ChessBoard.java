@@ -1,14 +1,21 @@
 package chess;
 
-import java.util.Objects;
 import java.util.Arrays;
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Pieces are kept twice: in the {@code board} array, which is what gets
+ * serialized, and in one occupancy bitboard per color/piece type, which is
+ * what the move generator and check detection query. The bitboards are
+ * rebuilt from {@code board} on first use, so boards created by reflection
+ * (e.g. Gson) stay consistent.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
+    private static final int PIECE_KINDS = ChessPiece.PieceType.values().length;
+
     @Override
     public boolean equals(Object instance) {
         if (this == instance) {
@@ -17,18 +24,42 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) instance;
-        return Arrays.deepEquals(board, that.board);
+        return Arrays.equals(bitboards(), that.bitboards());
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(zobristKey());
     }
 
     ChessPiece[][] board = new ChessPiece[8][8];
+    private transient long[] pieceBitboards = new long[2 * PIECE_KINDS];
+    private transient long[] colorBitboards = new long[2];
+    private transient long zobristKey;
+    private transient int materialScore;
+    private transient long materialSignature;
+    private transient boolean indexed;
+
     public ChessBoard() {
     }
 
+    /**
+     * Creates an independent copy of another board, so a search can make and
+     * take back moves without touching the original.
+     */
+    public ChessBoard(ChessBoard other) {
+        for (int row = 0; row < 8; row++) {
+            board[row] = other.board[row].clone();
+        }
+        other.ensureIndexed();
+        System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(other.colorBitboards, 0, colorBitboards, 0, colorBitboards.length);
+        zobristKey = other.zobristKey;
+        materialScore = other.materialScore;
+        materialSignature = other.materialSignature;
+        indexed = true;
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -36,7 +67,20 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow() - 1][position.getColumn() - 1] = piece;
+        ensureIndexed();
+        int square = Bitboards.square(position);
+        ChessPiece old = board[square >>> 3][square & 7];
+        if (old != null) {
+            toggle(old, square);
+            materialScore -= score(old, square);
+            materialSignature -= signature(old);
+        }
+        board[square >>> 3][square & 7] = piece;
+        if (piece != null) {
+            toggle(piece, square);
+            materialScore += score(piece, square);
+            materialSignature += signature(piece);
+        }
     }
 
     /**
@@ -47,11 +91,179 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        if (board[position.getRow() - 1][position.getColumn() - 1] != null) {
-            return board[position.getRow() - 1][position.getColumn() - 1];
-        } else {
-            return null;
+        return board[position.getRow() - 1][position.getColumn() - 1];
+    }
+
+    /**
+     * @return the piece on the given 0-63 square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return board[square >>> 3][square & 7];
+    }
+
+    /**
+     * Applies a move in place, without checking that it is legal. The piece
+     * on the start square moves to the end square, becoming the promotion
+     * piece if the move has one.
+     *
+     * @param move the move to apply
+     * @return the piece that was captured, or null; pass it to
+     * {@link #undoMove(ChessMove, ChessPiece)} to take the move back
+     */
+    public ChessPiece applyMove(ChessMove move) {
+        return applyMove(Move.of(move));
+    }
+
+    /**
+     * Takes back a move made with {@link #applyMove(ChessMove)}, restoring the
+     * board exactly as it was.
+     *
+     * @param move     the move that was applied
+     * @param captured the piece {@code applyMove} returned
+     */
+    public void undoMove(ChessMove move, ChessPiece captured) {
+        undoMove(Move.of(move), captured);
+    }
+
+    /**
+     * {@link Move}-encoded form of {@link #applyMove(ChessMove)}.
+     */
+    public ChessPiece applyMove(int move) {
+        ensureIndexed();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece mover = getPiece(from);
+        ChessPiece captured = getPiece(to);
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        remove(from, mover);
+        if (captured != null) {
+            remove(to, captured);
+        }
+        put(to, promotion == null ? mover : ChessPiece.of(mover.getTeamColor(), promotion));
+        return captured;
+    }
+
+    /**
+     * {@link Move}-encoded form of {@link #undoMove(ChessMove, ChessPiece)}.
+     */
+    public void undoMove(int move, ChessPiece captured) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece placed = getPiece(to);
+        ChessPiece mover = Move.isPromotion(move)
+                ? ChessPiece.of(placed.getTeamColor(), ChessPiece.PieceType.PAWN) : placed;
+        remove(to, placed);
+        if (captured != null) {
+            put(to, captured);
         }
+        put(from, mover);
+    }
+
+    /**
+     * @return the Zobrist key of the piece placement, kept up to date by
+     * {@link #addPiece} and {@link #applyMove}/{@link #undoMove}
+     */
+    public long zobristKey() {
+        ensureIndexed();
+        return zobristKey;
+    }
+
+    /**
+     * @return the sum of the pieces' {@link PieceSquareTables} scores, from
+     * white's point of view, kept up to date like {@link #zobristKey()}
+     */
+    public int materialScore() {
+        ensureIndexed();
+        return materialScore;
+    }
+
+    /**
+     * Gets the count of every kind of piece on the board, packed four bits
+     * per kind: the count of pieces of {@code color} and {@code type} is
+     * {@code (signature >>> signatureShift(color, type)) & 0xF}, which
+     * holds up to 15, more than a legal game can have. Equal material gives
+     * equal signatures wherever the pieces stand. Kept up to date like
+     * {@link #zobristKey()}.
+     *
+     * @return the material signature
+     */
+    public long materialSignature() {
+        ensureIndexed();
+        return materialSignature;
+    }
+
+    /**
+     * @return the bit position of a kind of piece's count in
+     * {@link #materialSignature()}
+     */
+    public static int signatureShift(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return 4 * index(color, type);
+    }
+
+    /**
+     * @return the squares holding pieces of the given color and type
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return bitboards()[index(color, type)];
+    }
+
+    /**
+     * @return the squares holding pieces of the given color
+     */
+    public long pieces(ChessGame.TeamColor color) {
+        ensureIndexed();
+        return colorBitboards[color.ordinal()];
+    }
+
+    /**
+     * @return the squares holding any piece
+     */
+    public long occupied() {
+        ensureIndexed();
+        return colorBitboards[0] | colorBitboards[1];
+    }
+
+    /**
+     * @return the 0-63 square of the given team's king, or -1 if it has none
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        long king = pieces(color, ChessPiece.PieceType.KING);
+        return king == 0 ? -1 : Bitboards.first(king);
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square. Rather than
+     * generating the attackers' moves, this looks outward from the target
+     * square: a knight, king or pawn pattern from the square, or a rook or
+     * bishop ray stopped at the first blocker, finding an attacker of the
+     * matching kind means the square is attacked.
+     *
+     * @param square  the 0-63 square to test
+     * @param byColor the attacking team
+     * @return True if the square is attacked
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        return attackers(square, byColor, occupied()) != 0;
+    }
+
+    /**
+     * Finds every piece of the given team that attacks a square, treating
+     * exactly the squares in {@code occupied} as blocking sliding pieces.
+     *
+     * @return the attacking pieces' squares
+     */
+    public long attackers(int square, ChessGame.TeamColor byColor, long occupied) {
+        ensureIndexed();
+        int side = byColor.ordinal() * PIECE_KINDS;
+        long queens = pieceBitboards[side + ChessPiece.PieceType.QUEEN.ordinal()];
+        // A pawn attacks this square exactly when a defending pawn here would attack it back
+        return (Bitboards.PAWN_ATTACKS[1 - byColor.ordinal()][square] & pieceBitboards[side + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Bitboards.KNIGHT_ATTACKS[square] & pieceBitboards[side + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Bitboards.KING_ATTACKS[square] & pieceBitboards[side + ChessPiece.PieceType.KING.ordinal()])
+                | (Bitboards.bishopAttacks(square, occupied)
+                    & (pieceBitboards[side + ChessPiece.PieceType.BISHOP.ordinal()] | queens))
+                | (Bitboards.rookAttacks(square, occupied)
+                    & (pieceBitboards[side + ChessPiece.PieceType.ROOK.ordinal()] | queens));
     }
 
     /**
@@ -59,73 +271,82 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        ChessPiece whitePawn1 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        ChessPiece whitePawn2 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        ChessPiece whitePawn3 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        ChessPiece whitePawn4 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        ChessPiece whitePawn5 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        ChessPiece whitePawn6 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        ChessPiece whitePawn7 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        ChessPiece whitePawn8 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        ChessPiece whiteBishop1 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        ChessPiece whiteBishop2 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        ChessPiece whiteKnight1 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        ChessPiece whiteKnight2 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        ChessPiece whiteRook1 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        ChessPiece whiteRook2 = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        ChessPiece whiteKing = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        ChessPiece whiteQueen = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-
-        ChessPiece blackPawn1 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        ChessPiece blackPawn2 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        ChessPiece blackPawn3 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        ChessPiece blackPawn4 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        ChessPiece blackPawn5 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        ChessPiece blackPawn6 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        ChessPiece blackPawn7 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        ChessPiece blackPawn8 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        ChessPiece blackBishop1 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        ChessPiece blackBishop2 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        ChessPiece blackKnight1 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        ChessPiece blackKnight2 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        ChessPiece blackRook1 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        ChessPiece blackRook2 = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        ChessPiece blackKing = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        ChessPiece blackQueen = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-
-        board[0][0] = whiteRook1;
-        board[0][1] = whiteKnight1;
-        board[0][2] = whiteBishop1;
-        board[0][3] = whiteQueen;
-        board[0][4] = whiteKing;
-        board[0][5] = whiteBishop2;
-        board[0][6] = whiteKnight2;
-        board[0][7] = whiteRook2;
-        board[1][0] = whitePawn1;
-        board[1][1] = whitePawn2;
-        board[1][2] = whitePawn3;
-        board[1][3] = whitePawn4;
-        board[1][4] = whitePawn5;
-        board[1][5] = whitePawn6;
-        board[1][6] = whitePawn7;
-        board[1][7] = whitePawn8;
-
-        board[7][0] = blackRook1;
-        board[7][1] = blackKnight1;
-        board[7][2] = blackBishop1;
-        board[7][3] = blackQueen;
-        board[7][4] = blackKing;
-        board[7][5] = blackBishop2;
-        board[7][6] = blackKnight2;
-        board[7][7] = blackRook2;
-        board[6][0] = blackPawn1;
-        board[6][1] = blackPawn2;
-        board[6][2] = blackPawn3;
-        board[6][3] = blackPawn4;
-        board[6][4] = blackPawn5;
-        board[6][5] = blackPawn6;
-        board[6][6] = blackPawn7;
-        board[6][7] = blackPawn8;
+        ChessPiece.PieceType[] backRank = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+        };
+        board = new ChessPiece[8][8];
+        indexed = false;
+        for (int col = 1; col <= 8; col++) {
+            ChessPiece.PieceType type = backRank[col - 1];
+            addPiece(ChessPosition.of(1, col), ChessPiece.of(ChessGame.TeamColor.WHITE, type));
+            addPiece(ChessPosition.of(2, col), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, col), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(8, col), ChessPiece.of(ChessGame.TeamColor.BLACK, type));
+        }
+    }
+
+    static int index(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_KINDS + type.ordinal();
+    }
+
+    private void put(int square, ChessPiece piece) {
+        board[square >>> 3][square & 7] = piece;
+        toggle(piece, square);
+        materialScore += score(piece, square);
+        materialSignature += signature(piece);
+    }
+
+    private void remove(int square, ChessPiece piece) {
+        board[square >>> 3][square & 7] = null;
+        toggle(piece, square);
+        materialScore -= score(piece, square);
+        materialSignature -= signature(piece);
+    }
 
+    private static long signature(ChessPiece piece) {
+        return 1L << signatureShift(piece.getTeamColor(), piece.getPieceType());
+    }
+
+    private static int score(ChessPiece piece, int square) {
+        return PieceSquareTables.score(index(piece.getTeamColor(), piece.getPieceType()), square);
+    }
+
+    private void toggle(ChessPiece piece, int square) {
+        long bit = Bitboards.bit(square);
+        int index = index(piece.getTeamColor(), piece.getPieceType());
+        pieceBitboards[index] ^= bit;
+        colorBitboards[piece.getTeamColor().ordinal()] ^= bit;
+        zobristKey ^= Zobrist.pieceSquare(index, square);
+    }
+
+    private long[] bitboards() {
+        ensureIndexed();
+        return pieceBitboards;
+    }
+
+    private void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        if (pieceBitboards == null) {
+            pieceBitboards = new long[2 * PIECE_KINDS];
+            colorBitboards = new long[2];
+        }
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        zobristKey = 0;
+        materialScore = 0;
+        materialSignature = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board[square >>> 3][square & 7];
+            if (piece != null) {
+                toggle(piece, square);
+                materialScore += score(piece, square);
+                materialSignature += signature(piece);
+            }
+        }
+        indexed = true;
     }
 }
@@ -2,7 +2,13 @@ package chess;
 
 import java.util.Collection;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Manages a chess game and moves on a board.
@@ -11,13 +17,20 @@ import java.util.Objects;
  * the signature of the existing methods.
  */
 public class ChessGame {
+    /** Plies without a capture or pawn move after which either player may claim a draw. */
+    public static final int FIFTY_MOVE_PLIES = 100;
+    /** Plies without a capture or pawn move after which the game is drawn. */
+    public static final int SEVENTY_FIVE_MOVE_PLIES = 150;
 
-    private static final int BOARD_MIN = 1;
-    private static final int BOARD_MAX = 8;
+    private static final long KINGS = kinds(ChessPiece.PieceType.KING);
+    private static final long MINOR_PIECES = kinds(ChessPiece.PieceType.BISHOP) | kinds(ChessPiece.PieceType.KNIGHT);
 
     private ChessBoard currentBoard;
     private TeamColor currentTurn;
     private boolean gameOver;
+    private transient MoveHistory history = new MoveHistory();
+    private transient GameStatus cachedStatus;
+    private transient long cachedStatusKey;
 
     @Override
     public boolean equals(Object o) {
@@ -35,7 +48,7 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(currentBoard, currentTurn, gameOver);
+        return 31 * Long.hashCode(positionKey()) + Boolean.hashCode(gameOver);
     }
 
     public ChessGame() {
@@ -44,6 +57,94 @@ public class ChessGame {
         currentTurn = TeamColor.WHITE;
     }
 
+    /**
+     * Wraps an existing board without setting up the starting position first,
+     * for the decoders that build the board themselves.
+     */
+    ChessGame(ChessBoard board, TeamColor turn, boolean gameOver) {
+        currentBoard = board;
+        currentTurn = turn;
+        this.gameOver = gameOver;
+    }
+
+    /**
+     * Replaces the move history with packed moves that led to the current
+     * position, as {@link MoveHistory#toArray()} or
+     * {@link MoveHistory#reversibleMoves()} return them.
+     *
+     * @param halfmoveClock the current position's halfmove clock
+     * @throws IllegalArgumentException if the moves cannot have led here
+     */
+    void restoreHistory(int[] packed, int halfmoveClock) {
+        history = MoveHistory.replay(packed, currentBoard, currentTurn, halfmoveClock);
+        cachedStatus = null;
+    }
+
+    /**
+     * Starts a new history at a position with the given halfmove clock, for
+     * the decoders.
+     */
+    void setHalfmoveClock(int halfmoveClock) {
+        if (halfmoveClock < 0) {
+            throw new IllegalArgumentException("Halfmove clock must not be negative: " + halfmoveClock);
+        }
+        history.startFrom(halfmoveClock);
+        cachedStatus = null;
+    }
+
+    /**
+     * @return the game's move history, for the encoders
+     */
+    MoveHistory history() {
+        return history;
+    }
+
+    /**
+     * Gets a 64-bit Zobrist key for the position: the piece placement and
+     * the side to move. Equal positions always have equal keys, and the key
+     * is maintained incrementally as pieces are added and moves are made.
+     *
+     * @return the position key
+     */
+    public long positionKey() {
+        long key = currentBoard.zobristKey();
+        return currentTurn == TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
+    }
+
+    /**
+     * Writes the game as a FEN string: piece placement, side to move, and a
+     * trailing {@code over} field once the game has ended.
+     *
+     * @return the FEN for the current position
+     */
+    public String toFen() {
+        return Fen.write(this, false);
+    }
+
+    /**
+     * Writes the game as a FEN string followed by the moves made since the
+     * last capture or pawn move, which is all {@link #repetitions()} needs,
+     * for storing a game that is still being played.
+     *
+     * @return the FEN for the current position and the moves that led to it
+     */
+    public String toFenWithHistory() {
+        return Fen.write(this, true);
+    }
+
+    /**
+     * Builds a game from a FEN string as written by {@link #toFen()} or
+     * {@link #toFenWithHistory()}. Only the placement field is required; the
+     * side to move defaults to white.
+     *
+     * @param fen the FEN to read
+     * @return the game it describes
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.read(fen);
+    }
+
     public boolean isGameOver() {
         return gameOver;
     }
@@ -66,6 +167,8 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         currentTurn = team;
+        history.clear();
+        cachedStatus = null;
     }
 
     /**
@@ -76,6 +179,133 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * The state of the game from the point of view of the team whose turn it is
+     */
+    public enum GameStatus {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        /** Neither side has the pieces to checkmate: the game is drawn. */
+        INSUFFICIENT_MATERIAL,
+        /** 75 moves each without a capture or pawn move: the game is drawn. */
+        SEVENTY_FIVE_MOVE_RULE,
+        /** The position has occurred three times: either player may claim a draw. */
+        THREEFOLD_REPETITION,
+        /** 50 moves each without a capture or pawn move: either player may claim a draw. */
+        FIFTY_MOVE_RULE;
+
+        /**
+         * @return True if the game cannot go on
+         */
+        public boolean isFinal() {
+            return this == CHECKMATE || this == STALEMATE || this == INSUFFICIENT_MATERIAL
+                    || this == SEVENTY_FIVE_MOVE_RULE;
+        }
+
+        /**
+         * @return True if the game is drawn, or either player may claim a draw
+         */
+        public boolean isDraw() {
+            return this != ONGOING && this != CHECK && this != CHECKMATE;
+        }
+    }
+
+    /**
+     * Determines whether the team whose turn it is is in check, checkmate or
+     * stalemate, or whether the game is drawn or may be claimed as a draw,
+     * looking for check and for a legal move only once. The result is
+     * remembered until the position changes.
+     * <p>
+     * Checkmate and stalemate come first: a move that mates ends the game
+     * even if it also completes 75 moves. Then come the automatic draws,
+     * then the claimable ones, then check.
+     *
+     * @return the status of the team to move
+     */
+    public GameStatus status() {
+        long key = positionKey();
+        if (cachedStatus == null || cachedStatusKey != key) {
+            cachedStatus = computeStatus(currentTurn);
+            cachedStatusKey = key;
+        }
+        return cachedStatus;
+    }
+
+    private GameStatus computeStatus(TeamColor teamColor) {
+        boolean inCheck = isInCheck(teamColor);
+        if (!hasAnyLegalMove(teamColor)) {
+            return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        }
+        if (isInsufficientMaterial()) {
+            return GameStatus.INSUFFICIENT_MATERIAL;
+        }
+        if (teamColor == currentTurn) {
+            // the clock and repetitions belong to the position with its side to move
+            int clock = getHalfmoveClock();
+            if (clock >= SEVENTY_FIVE_MOVE_PLIES) {
+                return GameStatus.SEVENTY_FIVE_MOVE_RULE;
+            }
+            if (isThreefoldRepetition()) {
+                return GameStatus.THREEFOLD_REPETITION;
+            }
+            if (clock >= FIFTY_MOVE_PLIES) {
+                return GameStatus.FIFTY_MOVE_RULE;
+            }
+        }
+        return inCheck ? GameStatus.CHECK : GameStatus.ONGOING;
+    }
+
+    /**
+     * Gets the halfmove clock: the plies made since the last capture or pawn
+     * move, kept up to date by {@link #makeMove} and {@link #undoMove}.
+     *
+     * @return the halfmove clock
+     */
+    public int getHalfmoveClock() {
+        return history.reversiblePlies();
+    }
+
+    /**
+     * Determines if neither side has the pieces left to checkmate: kings
+     * alone, a king and one bishop or knight against a king, or kings and
+     * any number of bishops that all stand on squares of one color. Reads
+     * the board's material signature, so it costs the same in any position.
+     *
+     * @return True if the position is a dead draw by material
+     */
+    public boolean isInsufficientMaterial() {
+        long signature = currentBoard.materialSignature();
+        if ((signature & ~(KINGS | MINOR_PIECES)) != 0) {
+            return false;
+        }
+        int knights = count(signature, ChessPiece.PieceType.KNIGHT);
+        int bishops = count(signature, ChessPiece.PieceType.BISHOP);
+        if (knights + bishops <= 1) {
+            return true;
+        }
+        if (knights > 0) {
+            return false;
+        }
+        long squares = currentBoard.pieces(TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+                | currentBoard.pieces(TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        return (squares & Bitboards.LIGHT_SQUARES) == 0 || (squares & ~Bitboards.LIGHT_SQUARES) == 0;
+    }
+
+    /**
+     * @return the signature bits counting both colors' pieces of a type
+     */
+    private static long kinds(ChessPiece.PieceType type) {
+        return (0xFL << ChessBoard.signatureShift(TeamColor.WHITE, type))
+                | (0xFL << ChessBoard.signatureShift(TeamColor.BLACK, type));
+    }
+
+    private static int count(long signature, ChessPiece.PieceType type) {
+        return (int) ((signature >>> ChessBoard.signatureShift(TeamColor.WHITE, type)) & 0xF)
+                + (int) ((signature >>> ChessBoard.signatureShift(TeamColor.BLACK, type)) & 0xF);
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -84,41 +314,56 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        ChessPiece startPiece = currentBoard.getPiece(startPosition);
+        Collection<ChessMove> legalMoves = new ArrayList<>();
+        MoveGenerator.legalMoves(currentBoard, Bitboards.square(startPosition), legalMoves);
+        return legalMoves;
+    }
 
-        if (startPiece == null) {
-            return new ArrayList<>();
-        }
-        
-        Collection<ChessMove> pieceMoves = startPiece.pieceMoves(currentBoard, startPosition);
+    /**
+     * Gets every valid move for a team, whether or not it is that team's turn
+     *
+     * @param teamColor the team to get valid moves for
+     * @return Set of valid moves for every piece of the team
+     */
+    public Collection<ChessMove> legalMoves(TeamColor teamColor) {
         Collection<ChessMove> legalMoves = new ArrayList<>();
-        
-        
-        for (ChessMove move : pieceMoves) {
-            ChessBoard boardAfterMove = copyBoardAndApplyMove(move);
-            ChessGame gameAfterMove = new ChessGame();
-            gameAfterMove.setBoard(boardAfterMove);
-            if (!gameAfterMove.isInCheck(startPiece.getTeamColor())) {
-                legalMoves.add(move);
-            }
-        }
+        MoveGenerator.legalMoves(currentBoard, teamColor, legalMoves);
         return legalMoves;
     }
 
     /**
-     * Returns a copy of the current board with the given move applied.
+     * Lazily generates a team's valid moves: each piece's moves are only
+     * worked out once the consumer has taken all moves of the previous piece,
+     * so stopping early skips the rest of the work.
+     *
+     * @param teamColor the team to get valid moves for
+     * @return an iterator over the team's valid moves
      */
-    private ChessBoard copyBoardAndApplyMove(ChessMove move) {
-        ChessBoard copy = new ChessBoard();
-        for (int row = BOARD_MIN; row <= BOARD_MAX; row++) {
-            for (int col = BOARD_MIN; col <= BOARD_MAX; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                copy.addPiece(pos, currentBoard.getPiece(pos));
-            }
-        }
-        copy.addPiece(move.getEndPosition(), copy.getPiece(move.getStartPosition()));
-        copy.addPiece(move.getStartPosition(), null);
-        return copy;
+    public Iterator<ChessMove> legalMoveIterator(TeamColor teamColor) {
+        return MoveGenerator.legalMoveIterator(currentBoard, teamColor);
+    }
+
+    /**
+     * Streams a team's valid moves on top of {@link #legalMoveIterator}, so
+     * short-circuiting operations like {@code anyMatch} stop generating as
+     * soon as they have an answer.
+     *
+     * @param teamColor the team to get valid moves for
+     * @return a sequential stream of the team's valid moves
+     */
+    public Stream<ChessMove> legalMoveStream(TeamColor teamColor) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(legalMoveIterator(teamColor),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Determines if a team has any valid move, without building the moves
+     *
+     * @param teamColor the team to check
+     * @return True if at least one of the team's pieces can move
+     */
+    public boolean hasAnyLegalMove(TeamColor teamColor) {
+        return MoveGenerator.hasAnyLegalMove(currentBoard, teamColor);
     }
 
     /**
@@ -138,19 +383,21 @@ public class ChessGame {
         if (startPiece.getTeamColor() != currentTurn) {
             throw new InvalidMoveException("Not the current team's turn");
         }
-        Collection<ChessMove> legalMoves = validMoves(move.getStartPosition());
-
-        if (legalMoves == null || !legalMoves.contains(move)) {
+        ChessPosition end = move.getEndPosition();
+        if (end == null || !Bitboards.onBoard(end.getRow(), end.getColumn())) {
             throw new InvalidMoveException("Move is not valid");
         }
-        ChessPiece.PieceType promotionType = move.getPromotionPiece();
-        if (promotionType == null) {
-            currentBoard.addPiece(move.getEndPosition(), currentBoard.getPiece(move.getStartPosition()));
-            currentBoard.addPiece(move.getStartPosition(), null);
-        } else {
-            currentBoard.addPiece(move.getEndPosition(), new ChessPiece(startPiece.getTeamColor(), promotionType));
-            currentBoard.addPiece(move.getStartPosition(), null);
+        int encoded = Move.of(move);
+        MoveList legalMoves = new MoveList();
+        MoveGenerator.legalMoves(currentBoard, Move.from(encoded), legalMoves);
+
+        if (!legalMoves.contains(encoded)) {
+            throw new InvalidMoveException("Move is not valid");
         }
+        long keyBefore = positionKey();
+        ChessPiece captured = currentBoard.applyMove(encoded);
+        history.push(encoded, startPiece, captured, keyBefore);
+        cachedStatus = null;
 
         if (currentTurn == TeamColor.WHITE) {
             currentTurn = TeamColor.BLACK;
@@ -159,43 +406,90 @@ public class ChessGame {
         }
     }
 
+    /**
+     * Takes back the last move, restoring the board and the turn exactly as
+     * they were before it. Whether the game is over is left as it is.
+     *
+     * @return the move taken back, or null if no move has been made since
+     * the game started or the position was last set up by hand
+     */
+    public ChessMove undoMove() {
+        if (history.size() == 0) {
+            return null;
+        }
+        int packed = history.pop();
+        int move = MoveHistory.move(packed);
+        currentBoard.undoMove(move, MoveHistory.captured(packed));
+        currentTurn = opponent(currentTurn);
+        cachedStatus = null;
+        return Move.toChessMove(move);
+    }
+
+    /**
+     * Gets the moves made so far, oldest first. Positions set up with
+     * {@link #setBoard} or {@link #setTeamTurn} start a new history, and a
+     * game read back from storage only has the moves since the last capture
+     * or pawn move.
+     *
+     * @return the moves, in a new list
+     */
+    public List<ChessMove> getMoveHistory() {
+        List<ChessMove> moves = new ArrayList<>(history.size());
+        for (int ply = 0; ply < history.size(); ply++) {
+            moves.add(Move.toChessMove(MoveHistory.move(history.get(ply))));
+        }
+        return moves;
+    }
+
+    /**
+     * Counts how often the current position, with the same side to move,
+     * occurred earlier in the game. Only the positions since the last capture
+     * or pawn move are looked at, since none before it can recur.
+     *
+     * @return the number of earlier occurrences
+     */
+    public int repetitions() {
+        return history.repetitions(positionKey());
+    }
+
+    /**
+     * @return True if the current position has occurred at least three times
+     */
+    public boolean isThreefoldRepetition() {
+        return repetitions() >= 2;
+    }
+
+    /**
+     * Finds the given team's king
+     *
+     * @param team which team's king to find
+     * @return the king's position, or null if the team has no king
+     */
+    public ChessPosition getKing(TeamColor team) {
+        int square = currentBoard.kingSquare(team);
+        return square < 0 ? null : Bitboards.position(square);
+    }
+
     /**
      * Determines if the given team is in check
      *
      * @param teamColor which team to check for check
      * @return True if the specified team is in check
      */
-    public ChessPosition getKing(TeamColor team) {
-        for (int row = BOARD_MIN; row <= BOARD_MAX; row++) {
-            for (int col = BOARD_MIN; col <= BOARD_MAX; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = currentBoard.getPiece(position);
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == team) {
-                    return position;
-                }
-            }
-        }
-        return null;
+    public boolean isInCheck(TeamColor teamColor) {
+        int king = currentBoard.kingSquare(teamColor);
+        return king >= 0 && currentBoard.isSquareAttacked(king, opponent(teamColor));
     }
 
-    public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = getKing(teamColor);
-        for (int row = BOARD_MIN; row <= BOARD_MAX; row++) {
-            for (int col = BOARD_MIN; col <= BOARD_MAX; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = currentBoard.getPiece(position);
-                if (piece == null || piece.getTeamColor() == teamColor) {
-                    continue;
-                }
-                Collection<ChessMove> moves = piece.pieceMoves(currentBoard, position);
-                for (ChessMove move : moves) {
-                    if (move.getEndPosition().equals(kingPosition)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+    /**
+     * Determines if any piece of the given team attacks a position
+     *
+     * @param position the position to test
+     * @param byColor  the attacking team
+     * @return True if the position is attacked
+     */
+    public boolean isSquareAttacked(ChessPosition position, TeamColor byColor) {
+        return currentBoard.isSquareAttacked(Bitboards.square(position), byColor);
     }
 
     /**
@@ -205,10 +499,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (!this.isInCheck(teamColor)) {
-            return false;
-        }
-        return !teamHasAnyLegalMove(teamColor);
+        return statusOf(teamColor) == GameStatus.CHECKMATE;
     }
 
     /**
@@ -219,26 +510,15 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (this.isInCheck(teamColor)) {
-            return false;
-        }
-        return !teamHasAnyLegalMove(teamColor);
-    }
-
-    private boolean teamHasAnyLegalMove(TeamColor teamColor) {
-        for (int row = BOARD_MIN; row <= BOARD_MAX; row++) {
-            for (int col = BOARD_MIN; col <= BOARD_MAX; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = currentBoard.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> legalMoves = validMoves(position);
-                    if (!legalMoves.isEmpty()) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return statusOf(teamColor) == GameStatus.STALEMATE;
+    }
+
+    private GameStatus statusOf(TeamColor teamColor) {
+        return teamColor == currentTurn ? status() : computeStatus(teamColor);
+    }
+
+    private static TeamColor opponent(TeamColor team) {
+        return team == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     /**
@@ -248,6 +528,8 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         currentBoard = board;
+        history.clear();
+        cachedStatus = null;
     }
 
     /**
@@ -0,0 +1,391 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Gson configuration for the chess classes.
+ * <p>
+ * Games, boards, moves, pieces and positions are written and read by
+ * hand-written streaming adapters instead of reflection. Plain reflection
+ * output is only the base shape (same field names, order and null handling).
+ * A game also gets a {@code halfmoveClock} field when the clock is not zero,
+ * and in storage mode a {@code history} field. Neither is a field of
+ * {@link ChessGame}, so a plain {@code Gson} reading the JSON ignores them
+ * and loses the clock. Positions and pieces are read back as their shared
+ * instances ({@link ChessPosition#of}, {@link ChessPiece#of}).
+ * <p>
+ * Games can optionally be written as a FEN string instead of the nested
+ * board object. Reading accepts either form, so a reader does not need to
+ * know which format the writer chose. For storage, either form can also
+ * carry the moves since the last capture or pawn move, so repetitions are
+ * still found after the game is read back; messages and responses leave
+ * them out.
+ */
+public final class ChessJson {
+    private static final PositionAdapter POSITION = new PositionAdapter();
+    private static final PieceAdapter PIECE = new PieceAdapter();
+    private static final MoveAdapter MOVE = new MoveAdapter();
+    private static final BoardAdapter BOARD = new BoardAdapter();
+
+    private ChessJson() {
+    }
+
+    /**
+     * @return a builder with the chess type adapters registered, for callers
+     * that need further configuration
+     */
+    public static GsonBuilder builder() {
+        return builder(GameFormat.JSON);
+    }
+
+    /**
+     * @param gameFormat how to write {@link ChessGame} values; JSON documents
+     *                   cannot hold {@link GameFormat#BINARY} snapshots, so
+     *                   that format writes the object form
+     * @return a builder with the chess type adapters registered
+     */
+    public static GsonBuilder builder(GameFormat gameFormat) {
+        return builder(gameFormat, false);
+    }
+
+    /**
+     * @param gameFormat  how to write {@link ChessGame} values, as for
+     *                    {@link #builder(GameFormat)}
+     * @param withHistory whether games also carry the moves since the last
+     *                    capture or pawn move, for storage
+     * @return a builder with the chess type adapters registered
+     */
+    public static GsonBuilder builder(GameFormat gameFormat, boolean withHistory) {
+        return new GsonBuilder()
+                .registerTypeAdapter(ChessPosition.class, POSITION.nullSafe())
+                .registerTypeAdapter(ChessPiece.class, PIECE.nullSafe())
+                .registerTypeAdapter(ChessMove.class, MOVE.nullSafe())
+                .registerTypeAdapter(ChessBoard.class, BOARD.nullSafe())
+                .registerTypeAdapter(ChessGame.class, new GameAdapter(gameFormat == GameFormat.FEN, withHistory).nullSafe());
+    }
+
+    public static Gson gson() {
+        return builder().create();
+    }
+
+    public static Gson gson(GameFormat gameFormat) {
+        return builder(gameFormat).create();
+    }
+
+    public static Gson gson(GameFormat gameFormat, boolean withHistory) {
+        return builder(gameFormat, withHistory).create();
+    }
+
+    private static final class PositionAdapter extends TypeAdapter<ChessPosition> {
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            out.beginObject();
+            out.name("boardRow").value(position.getRow());
+            out.name("boardCol").value(position.getColumn());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            int row = 0;
+            int col = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "boardRow" -> row = in.nextInt();
+                    case "boardCol" -> col = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return ChessPosition.of(row, col);
+        }
+    }
+
+    private static final class PieceAdapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            out.beginObject();
+            out.name("color").value(piece.getTeamColor().name());
+            out.name("pieceType").value(piece.getPieceType().name());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "color" -> color = readEnum(in, ChessGame.TeamColor.class);
+                    case "pieceType" -> type = readEnum(in, ChessPiece.PieceType.class);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new JsonParseException("Chess piece needs a color and a piece type");
+            }
+            return ChessPiece.of(color, type);
+        }
+    }
+
+    private static final class MoveAdapter extends TypeAdapter<ChessMove> {
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            out.beginObject();
+            out.name("start");
+            writePosition(out, move.getStartPosition());
+            out.name("end");
+            writePosition(out, move.getEndPosition());
+            ChessPiece.PieceType promotion = move.getPromotionPiece();
+            // the writer drops the name along with a null unless nulls are serialized
+            out.name("pieceType");
+            if (promotion == null) {
+                out.nullValue();
+            } else {
+                out.value(promotion.name());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "start" -> start = readPosition(in);
+                    case "end" -> end = readPosition(in);
+                    case "pieceType" -> promotion = readEnum(in, ChessPiece.PieceType.class);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ChessMove(start, end, promotion);
+        }
+
+        private static void writePosition(JsonWriter out, ChessPosition position) throws IOException {
+            if (position == null) {
+                out.nullValue();
+            } else {
+                POSITION.write(out, position);
+            }
+        }
+
+        private static ChessPosition readPosition(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return POSITION.read(in);
+        }
+    }
+
+    /**
+     * Boards are written as their 8x8 {@code board} array, row 1 first, with
+     * null for empty squares.
+     */
+    private static final class BoardAdapter extends TypeAdapter<ChessBoard> {
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            out.beginObject();
+            out.name("board").beginArray();
+            for (int row = 1; row <= 8; row++) {
+                out.beginArray();
+                for (int col = 1; col <= 8; col++) {
+                    ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+                    if (piece == null) {
+                        out.nullValue();
+                    } else {
+                        PIECE.write(out, piece);
+                    }
+                }
+                out.endArray();
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            ChessBoard board = new ChessBoard();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("board") && in.peek() != JsonToken.NULL) {
+                    readSquares(in, board);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return board;
+        }
+
+        private static void readSquares(JsonReader in, ChessBoard board) throws IOException {
+            in.beginArray();
+            for (int row = 1; in.hasNext(); row++) {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                in.beginArray();
+                for (int col = 1; in.hasNext(); col++) {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        continue;
+                    }
+                    if (!Bitboards.onBoard(row, col)) {
+                        throw new JsonParseException("Board is larger than 8x8");
+                    }
+                    board.addPiece(ChessPosition.of(row, col), PIECE.read(in));
+                }
+                in.endArray();
+            }
+            in.endArray();
+        }
+    }
+
+    /**
+     * Writes games as objects, or as FEN strings when asked to, and reads
+     * both. The object form also carries the halfmove clock when it is not
+     * zero and, when asked to, the moves since the last capture or pawn move
+     * as the packed ints of {@link MoveHistory}; a FEN string carries them as
+     * in {@link ChessGame#toFenWithHistory()}.
+     */
+    private static final class GameAdapter extends TypeAdapter<ChessGame> {
+        private final boolean writeFen;
+        private final boolean writeHistory;
+
+        GameAdapter(boolean writeFen, boolean writeHistory) {
+            this.writeFen = writeFen;
+            this.writeHistory = writeHistory;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            if (writeFen) {
+                out.value(writeHistory ? game.toFenWithHistory() : game.toFen());
+                return;
+            }
+            out.beginObject();
+            out.name("currentBoard");
+            if (game.getBoard() == null) {
+                out.nullValue();
+            } else {
+                BOARD.write(out, game.getBoard());
+            }
+            out.name("currentTurn");
+            if (game.getTeamTurn() == null) {
+                out.nullValue();
+            } else {
+                out.value(game.getTeamTurn().name());
+            }
+            out.name("gameOver").value(game.isGameOver());
+            if (game.getHalfmoveClock() != 0) {
+                out.name("halfmoveClock").value(game.getHalfmoveClock());
+            }
+            if (writeHistory && game.history().size() > 0) {
+                int[] history = game.history().reversibleMoves();
+                if (history.length > 0) {
+                    // packed moves; plain Gson skips the unknown field
+                    out.name("history").beginArray();
+                    for (int packed : history) {
+                        out.value(packed);
+                    }
+                    out.endArray();
+                }
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.STRING) {
+                try {
+                    return ChessGame.fromFen(in.nextString());
+                } catch (IllegalArgumentException e) {
+                    throw new JsonParseException(e.getMessage(), e);
+                }
+            }
+            ChessBoard board = null;
+            ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+            boolean gameOver = false;
+            int halfmoveClock = 0;
+            int[] history = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "currentBoard" -> {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            board = BOARD.read(in);
+                        }
+                    }
+                    case "currentTurn" -> turn = readEnum(in, ChessGame.TeamColor.class);
+                    case "gameOver" -> gameOver = in.nextBoolean();
+                    case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                    case "history" -> history = readHistory(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (board == null) {
+                // a missing board means the starting position, as with a new game
+                board = new ChessBoard();
+                board.resetBoard();
+            }
+            ChessGame game = new ChessGame(board, turn, gameOver);
+            try {
+                if (history != null) {
+                    game.restoreHistory(history, halfmoveClock);
+                } else if (halfmoveClock != 0) {
+                    game.setHalfmoveClock(halfmoveClock);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+            return game;
+        }
+
+        private static int[] readHistory(JsonReader in) throws IOException {
+            int[] moves = new int[64];
+            int size = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                if (size == moves.length) {
+                    moves = Arrays.copyOf(moves, size * 2);
+                }
+                moves[size++] = in.nextInt();
+            }
+            in.endArray();
+            return Arrays.copyOf(moves, size);
+        }
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> type) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String name = in.nextString();
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Unknown " + type.getSimpleName() + " '" + name + "'", e);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 import org.junit.jupiter.api.ClassOrderer;
 
 /**
@@ -24,7 +22,15 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(boardRow, boardCol);
+        return 31 * boardRow + boardCol;
+    }
+
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(Bitboards.row(square), Bitboards.column(square));
+        }
     }
 
     private final int boardRow;
@@ -35,6 +41,22 @@ public class ChessPosition {
         this.boardCol = col;
     }
 
+    /**
+     * Returns the shared instance for an on-board square, so hot paths do not
+     * allocate a position per lookup. Off-board coordinates get a fresh
+     * instance, as with the constructor.
+     */
+    public static ChessPosition of(int row, int col) {
+        return Bitboards.onBoard(row, col) ? SQUARES[Bitboards.square(row, col)] : new ChessPosition(row, col);
+    }
+
+    /**
+     * @return the shared instance for a 0-63 square (see {@link Bitboards})
+     */
+    static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -0,0 +1,200 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Reads and writes games in Forsyth-Edwards Notation.
+ * <p>
+ * This ruleset has no castling or en passant, so those fields are always
+ * written as {@code -} and ignored when read. The halfmove clock is written
+ * and read back; the fullmove number is always written as {@code 1} and
+ * ignored when read. A finished game gets a seventh field,
+ * {@code over}; other FEN readers ignore trailing fields.
+ * <p>
+ * For storage, the moves since the last capture or pawn move can follow, in
+ * coordinate notation, oldest first. They are the moves that led to the
+ * position, not moves to play from it, and are taken back to rebuild the
+ * keys a repetition check compares.
+ */
+final class Fen {
+    private static final char[] WHITE_SYMBOLS = {'K', 'Q', 'B', 'N', 'R', 'P'};
+    private static final char[] BLACK_SYMBOLS = {'k', 'q', 'b', 'n', 'r', 'p'};
+    private static final String GAME_OVER = "over";
+
+    private Fen() {
+    }
+
+    /**
+     * @param withHistory whether to append the moves since the last capture
+     *                    or pawn move
+     */
+    static String write(ChessGame game, boolean withHistory) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(96);
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(symbol(piece));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.BLACK ? " b" : " w")
+                .append(" - - ").append(game.getHalfmoveClock()).append(" 1");
+        if (game.isGameOver()) {
+            fen.append(' ').append(GAME_OVER);
+        }
+        if (withHistory) {
+            for (int packed : game.history().reversibleMoves()) {
+                fen.append(' ').append(Move.toString(MoveHistory.move(packed)));
+            }
+        }
+        return fen.toString();
+    }
+
+    static ChessGame read(String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("FEN must not be null");
+        }
+        int end = fen.length();
+        int pos = skipSpaces(fen, 0);
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int col = 1;
+        for (; pos < end && fen.charAt(pos) != ' '; pos++) {
+            char c = fen.charAt(pos);
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw invalid(fen);
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                if (col > 8) {
+                    throw invalid(fen);
+                }
+                board.addPiece(ChessPosition.of(row, col), piece(c, fen));
+                col++;
+            }
+            if (col > 9) {
+                throw invalid(fen);
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw invalid(fen);
+        }
+
+        ChessGame game = new ChessGame(board, ChessGame.TeamColor.WHITE, false);
+        pos = skipSpaces(fen, pos);
+        if (pos < end) {
+            int fieldEnd = fieldEnd(fen, pos);
+            if (fieldEnd - pos != 1 || (fen.charAt(pos) != 'w' && fen.charAt(pos) != 'b')) {
+                throw invalid(fen);
+            }
+            game.setTeamTurn(fen.charAt(pos) == 'b' ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+            pos = fieldEnd;
+        }
+        // castling, en passant and the fullmove number do not apply to this ruleset
+        for (int field = 0; field < 4 && pos < end; field++) {
+            int start = skipSpaces(fen, pos);
+            pos = fieldEnd(fen, start);
+            if (field == 2 && pos > start) {
+                game.setHalfmoveClock(halfmoveClock(fen, start, pos));
+            }
+        }
+        pos = skipSpaces(fen, pos);
+        if (pos < end && fen.startsWith(GAME_OVER, pos) && fieldEnd(fen, pos) == pos + GAME_OVER.length()) {
+            game.setGameOver(true);
+            pos = skipSpaces(fen, pos + GAME_OVER.length());
+        }
+        if (pos < end) {
+            game.restoreHistory(moves(fen, pos), game.getHalfmoveClock());
+        }
+        return game;
+    }
+
+    private static int[] moves(String fen, int pos) {
+        int[] moves = new int[16];
+        int count = 0;
+        while (pos < fen.length()) {
+            int end = fieldEnd(fen, pos);
+            if (count == moves.length) {
+                moves = Arrays.copyOf(moves, count * 2);
+            }
+            try {
+                moves[count++] = Move.parse(fen.substring(pos, end));
+            } catch (IllegalArgumentException e) {
+                throw invalid(fen);
+            }
+            pos = skipSpaces(fen, end);
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    private static int halfmoveClock(String fen, int start, int end) {
+        if (end - start > 4) {
+            throw invalid(fen);
+        }
+        int clock = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalid(fen);
+            }
+            clock = clock * 10 + (c - '0');
+        }
+        return clock;
+    }
+
+    private static char symbol(ChessPiece piece) {
+        char[] symbols = piece.getTeamColor() == ChessGame.TeamColor.WHITE ? WHITE_SYMBOLS : BLACK_SYMBOLS;
+        return symbols[piece.getPieceType().ordinal()];
+    }
+
+    private static ChessPiece piece(char c, String fen) {
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Unknown piece '" + c + "' in FEN: " + fen);
+        };
+        return ChessPiece.of(color, type);
+    }
+
+    private static int skipSpaces(String fen, int pos) {
+        while (pos < fen.length() && fen.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int fieldEnd(String fen, int pos) {
+        while (pos < fen.length() && fen.charAt(pos) != ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static IllegalArgumentException invalid(String fen) {
+        return new IllegalArgumentException("Invalid FEN: " + fen);
+    }
+}
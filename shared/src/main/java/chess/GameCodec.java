@@ -0,0 +1,171 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A compact, versioned binary snapshot of a {@link ChessGame}.
+ * <p>
+ * Layout (version 2, {@link #SIZE} bytes):
+ * <pre>
+ * byte 0       format version
+ * bytes 1-32   the 64 squares, two per byte: square 2i in the low nibble of
+ *              byte i and square 2i+1 in the high nibble; 0 is empty,
+ *              otherwise the piece's color ordinal * 6 + type ordinal + 1
+ * byte 33      flags: bit 0 black to move, bit 1 game over
+ * byte 34      halfmove clock, unsigned, held at 255 once it gets there
+ * </pre>
+ * Version 1 snapshots, without the clock, are still read, with a clock of 0.
+ * <p>
+ * Stored games also need the moves since the last capture or pawn move, so
+ * repetitions are still found after a reload. {@link #encodeWithHistory}
+ * writes them as a version 3 snapshot, the version 2 layout followed by:
+ * <pre>
+ * byte 35      number of moves n, unsigned; at most the last 255 are kept
+ * n shorts     the moves, oldest first, in {@link Move} encoding, big-endian
+ * </pre>
+ * The version byte is never a printable character, so a stored snapshot can
+ * be told apart from JSON or FEN text by its first byte.
+ * <p>
+ * Encoding and decoding work directly on the caller's {@link ByteBuffer}
+ * from its current position, with no intermediate arrays.
+ */
+public final class GameCodec {
+    public static final byte VERSION = 2;
+    public static final int SIZE = 35;
+
+    /** The version of snapshots written by {@link #encodeWithHistory}. */
+    public static final byte HISTORY_VERSION = 3;
+
+    private static final byte VERSION_1 = 1;
+    private static final int MAX_CLOCK = 0xFF;
+    private static final int MAX_MOVES = 0xFF;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 2;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+
+    private GameCodec() {
+    }
+
+    /**
+     * Writes the game at the buffer's position, advancing it by {@link #SIZE}.
+     *
+     * @throws java.nio.BufferOverflowException if fewer than {@link #SIZE}
+     *                                          bytes remain
+     */
+    public static void encode(ChessGame game, ByteBuffer out) {
+        encode(game, VERSION, out);
+    }
+
+    public static byte[] encode(ChessGame game) {
+        byte[] bytes = new byte[SIZE];
+        encode(game, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * @return a version 3 snapshot: the game and the moves since the last
+     * capture or pawn move, for storage
+     */
+    public static byte[] encodeWithHistory(ChessGame game) {
+        int[] moves = game.history().reversibleMoves();
+        int count = Math.min(moves.length, MAX_MOVES);
+        ByteBuffer out = ByteBuffer.allocate(SIZE + 1 + count * Short.BYTES);
+        encode(game, HISTORY_VERSION, out);
+        out.put((byte) count);
+        for (int ply = moves.length - count; ply < moves.length; ply++) {
+            out.putShort((short) MoveHistory.move(moves[ply]));
+        }
+        return out.array();
+    }
+
+    private static void encode(ChessGame game, byte version, ByteBuffer out) {
+        ChessBoard board = game.getBoard();
+        out.put(version);
+        for (int square = 0; square < 64; square += 2) {
+            out.put((byte) (nibble(board.getPiece(square)) | (nibble(board.getPiece(square + 1)) << 4)));
+        }
+        int flags = 0;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= BLACK_TO_MOVE;
+        }
+        if (game.isGameOver()) {
+            flags |= GAME_OVER;
+        }
+        out.put((byte) flags);
+        out.put((byte) Math.min(game.getHalfmoveClock(), MAX_CLOCK));
+    }
+
+    /**
+     * Reads a game from the buffer's position, advancing it past the
+     * snapshot: {@link #SIZE} bytes, one fewer for version 1, or the moves
+     * after them for version 3.
+     *
+     * @throws IllegalArgumentException if the bytes are not a snapshot this
+     *                                  version understands
+     */
+    public static ChessGame decode(ByteBuffer in) {
+        try {
+            byte version = in.get();
+            if (version != VERSION && version != VERSION_1 && version != HISTORY_VERSION) {
+                throw new IllegalArgumentException("Unsupported game snapshot version " + version);
+            }
+            ChessBoard board = new ChessBoard();
+            for (int square = 0; square < 64; square += 2) {
+                int packed = in.get() & 0xFF;
+                place(board, square, packed & 0xF);
+                place(board, square + 1, packed >>> 4);
+            }
+            int flags = in.get();
+            if ((flags & ~(BLACK_TO_MOVE | GAME_OVER)) != 0) {
+                throw new IllegalArgumentException("Unknown game snapshot flags " + flags);
+            }
+            ChessGame.TeamColor turn = (flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            ChessGame game = new ChessGame(board, turn, (flags & GAME_OVER) != 0);
+            if (version != VERSION_1) {
+                game.setHalfmoveClock(in.get() & 0xFF);
+            }
+            if (version == HISTORY_VERSION) {
+                int[] moves = new int[in.get() & 0xFF];
+                for (int ply = 0; ply < moves.length; ply++) {
+                    moves[ply] = in.getShort();
+                    if (moves[ply] <= 0) {
+                        throw new IllegalArgumentException("Invalid move " + (moves[ply] & 0xFFFF) + " in game snapshot");
+                    }
+                }
+                game.restoreHistory(moves, game.getHalfmoveClock());
+            }
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated game snapshot", e);
+        }
+    }
+
+    public static ChessGame decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @return true if the bytes start like a snapshot rather than text
+     */
+    public static boolean isSnapshot(byte[] bytes) {
+        return bytes.length > 0 && (bytes[0] == VERSION || bytes[0] == VERSION_1 || bytes[0] == HISTORY_VERSION);
+    }
+
+    private static int nibble(ChessPiece piece) {
+        return piece == null ? 0 : ChessBoard.index(piece.getTeamColor(), piece.getPieceType()) + 1;
+    }
+
+    private static void place(ChessBoard board, int square, int nibble) {
+        if (nibble == 0) {
+            return;
+        }
+        if (nibble > 2 * TYPES.length) {
+            throw new IllegalArgumentException("Invalid piece code " + nibble + " on square " + square);
+        }
+        int index = nibble - 1;
+        board.addPiece(ChessPosition.of(square), ChessPiece.of(COLORS[index / TYPES.length], TYPES[index % TYPES.length]));
+    }
+}
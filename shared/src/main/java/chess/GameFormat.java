@@ -0,0 +1,31 @@
+package chess;
+
+import java.util.Locale;
+
+/**
+ * How a {@link ChessGame} is encoded for storage or for the wire.
+ */
+public enum GameFormat {
+    /** The reflective Gson shape of the game object. */
+    JSON,
+    /** A FEN string, see {@link ChessGame#toFen()}. */
+    FEN,
+    /**
+     * A {@link GameCodec} snapshot. Only binary channels (a BLOB column, a
+     * websocket binary frame) can carry it; JSON documents use the object form.
+     */
+    BINARY;
+
+    /**
+     * Parses a format name case-insensitively, falling back to {@link #JSON}
+     * when the name is null or blank.
+     *
+     * @throws IllegalArgumentException if the name is not a known format
+     */
+    public static GameFormat parse(String name) {
+        if (name == null || name.isBlank()) {
+            return JSON;
+        }
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,106 @@
+package chess;
+
+/**
+ * Packs a move into an int so move lists need no objects per move.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square (both 0-63, see
+ * {@link Bitboards}) and bits 12-14 the promotion piece as its
+ * {@code PieceType} ordinal plus one, or zero for no promotion. Zero itself
+ * (a1 to a1) is never a real move, so it doubles as {@link #NONE}.
+ */
+public final class Move {
+    public static final int NONE = 0;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion) {
+        return promotion == null ? of(from, to) : of(from, to) | ((promotion.ordinal() + 1) << 12);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move >>> 12) != 0;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = move >>> 12;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    public static int of(ChessMove move) {
+        return of(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece());
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the move in coordinate notation, e.g. {@code e2e4} or {@code e7e8q}
+     */
+    public static String toString(int move) {
+        StringBuilder text = new StringBuilder(5);
+        appendSquare(text, from(move));
+        appendSquare(text, to(move));
+        ChessPiece.PieceType promotion = promotion(move);
+        if (promotion != null) {
+            text.append(promotion == ChessPiece.PieceType.KNIGHT ? 'n' : Character.toLowerCase(promotion.name().charAt(0)));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Reads a move in coordinate notation, the inverse of {@link #toString(int)}.
+     *
+     * @throws IllegalArgumentException if the text is not a move
+     */
+    public static int parse(String text) {
+        if (text.length() != 4 && text.length() != 5) {
+            throw new IllegalArgumentException("Invalid move: " + text);
+        }
+        int from = parseSquare(text, 0);
+        int to = parseSquare(text, 2);
+        if (text.length() == 4) {
+            return of(from, to);
+        }
+        ChessPiece.PieceType promotion = switch (text.charAt(4)) {
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            default -> throw new IllegalArgumentException("Invalid move: " + text);
+        };
+        return of(from, to, promotion);
+    }
+
+    private static int parseSquare(String text, int index) {
+        int file = text.charAt(index) - 'a';
+        int rank = text.charAt(index + 1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            throw new IllegalArgumentException("Invalid move: " + text);
+        }
+        return rank * 8 + file;
+    }
+
+    private static void appendSquare(StringBuilder text, int square) {
+        text.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+    }
+}
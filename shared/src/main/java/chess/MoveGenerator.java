@@ -0,0 +1,295 @@
+package chess;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Generates strictly legal moves straight from the bitboards.
+ * <p>
+ * Instead of producing pseudo-legal moves and trying each one for check, the
+ * generator first finds the pieces giving check and the pieces pinned to the
+ * king. In double check only the king may move; in single check every other
+ * piece must capture the checker or block its ray; a pinned piece may only
+ * move along the line through its king. King moves are tested against the
+ * enemy attacks with the king lifted off the board, so it cannot step back
+ * along a checking ray.
+ * <p>
+ * The legal moves of each piece come out as one bitboard of target squares,
+ * so asking whether a side has any legal move never builds a move at all.
+ */
+public final class MoveGenerator {
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor enemy;
+    private final long own;
+    private final long occupied;
+    private final int king;
+    private final boolean doubleCheck;
+    private final long checkMask;
+    private final long pinned;
+
+    private MoveGenerator(ChessBoard board, ChessGame.TeamColor side) {
+        this.board = board;
+        enemy = opponent(side);
+        own = board.pieces(side);
+        occupied = board.occupied();
+        king = board.kingSquare(side);
+        if (king < 0) {
+            doubleCheck = false;
+            checkMask = ~0L;
+            pinned = 0;
+            return;
+        }
+        long checkers = board.attackers(king, enemy, occupied);
+        doubleCheck = Long.bitCount(checkers) > 1;
+        checkMask = checkers == 0 ? ~0L : checkers | Bitboards.between(king, Bitboards.first(checkers));
+        pinned = pinnedPieces();
+    }
+
+    /**
+     * Adds every legal move for the given team to {@code moves}.
+     */
+    public static void legalMoves(ChessBoard board, ChessGame.TeamColor side, MoveList moves) {
+        MoveGenerator generator = new MoveGenerator(board, side);
+        for (long pieces = generator.own; pieces != 0; pieces = Bitboards.dropFirst(pieces)) {
+            int from = Bitboards.first(pieces);
+            addMoves(from, generator.legalTargets(from), generator.isPromotingPawn(from), moves);
+        }
+    }
+
+    /**
+     * Adds the legal moves of the piece on the given 0-63 square to
+     * {@code moves}; nothing is added if the square is empty.
+     */
+    public static void legalMoves(ChessBoard board, int from, MoveList moves) {
+        ChessPiece piece = board.getPiece(from);
+        if (piece != null) {
+            MoveGenerator generator = new MoveGenerator(board, piece.getTeamColor());
+            addMoves(from, generator.legalTargets(from), generator.isPromotingPawn(from), moves);
+        }
+    }
+
+    /**
+     * {@link ChessMove} adapter for {@link #legalMoves(ChessBoard, ChessGame.TeamColor, MoveList)}.
+     */
+    public static void legalMoves(ChessBoard board, ChessGame.TeamColor side, Collection<ChessMove> moves) {
+        MoveList list = new MoveList();
+        legalMoves(board, side, list);
+        list.addTo(moves);
+    }
+
+    /**
+     * {@link ChessMove} adapter for {@link #legalMoves(ChessBoard, int, MoveList)}.
+     */
+    public static void legalMoves(ChessBoard board, int from, Collection<ChessMove> moves) {
+        MoveList list = new MoveList();
+        legalMoves(board, from, list);
+        list.addTo(moves);
+    }
+
+    /**
+     * Adds the moves a piece could make from {@code from} if leaving its
+     * king in check were allowed. The piece's own color decides which pieces
+     * it may capture; it does not have to be the piece on the board.
+     */
+    public static void pseudoLegalMoves(ChessBoard board, ChessPiece piece, int from, MoveList moves) {
+        long targets = pseudoTargets(board, piece, from, board.occupied()) & ~board.pieces(piece.getTeamColor());
+        addMoves(from, targets, isPromotingPawn(piece, from), moves);
+    }
+
+    /**
+     * Determines if the given team has at least one legal move, stopping at
+     * the first piece that has one.
+     */
+    public static boolean hasAnyLegalMove(ChessBoard board, ChessGame.TeamColor side) {
+        MoveGenerator generator = new MoveGenerator(board, side);
+        long others = generator.king < 0 ? generator.own : generator.own ^ Bitboards.bit(generator.king);
+        if (!generator.doubleCheck) {
+            // other pieces only need a few mask operations, the king needs attack tests
+            for (; others != 0; others = Bitboards.dropFirst(others)) {
+                if (generator.legalTargets(Bitboards.first(others)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return generator.king >= 0 && generator.legalTargets(generator.king) != 0;
+    }
+
+    /**
+     * @return an iterator that generates the given team's legal moves one
+     * piece at a time, as they are consumed
+     */
+    public static Iterator<ChessMove> legalMoveIterator(ChessBoard board, ChessGame.TeamColor side) {
+        return new LegalMoveIterator(new MoveGenerator(board, side));
+    }
+
+    /**
+     * @return the squares the piece on {@code from} can legally move to
+     */
+    private long legalTargets(int from) {
+        if (from == king) {
+            return kingTargets();
+        }
+        if (doubleCheck) {
+            return 0;
+        }
+        long targets = pseudoTargets(board, board.getPiece(from), from, occupied) & ~own & checkMask;
+        if ((pinned & Bitboards.bit(from)) != 0) {
+            targets &= Bitboards.line(king, from);
+        }
+        return targets;
+    }
+
+    private long kingTargets() {
+        long withoutKing = occupied ^ Bitboards.bit(king);
+        long legal = 0;
+        for (long targets = Bitboards.KING_ATTACKS[king] & ~own; targets != 0; targets = Bitboards.dropFirst(targets)) {
+            int to = Bitboards.first(targets);
+            if (board.attackers(to, enemy, withoutKing) == 0) {
+                legal |= Bitboards.bit(to);
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * A piece is pinned when it is the only piece between its king and an
+     * enemy slider that would otherwise attack the king.
+     */
+    private long pinnedPieces() {
+        long enemies = board.pieces(enemy);
+        long queens = board.pieces(enemy, ChessPiece.PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(king, enemies) & (board.pieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(king, enemies) & (board.pieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+        long result = 0;
+        for (; snipers != 0; snipers = Bitboards.dropFirst(snipers)) {
+            long blockers = Bitboards.between(king, Bitboards.first(snipers)) & occupied;
+            if (blockers != 0 && Bitboards.dropFirst(blockers) == 0) {
+                result |= blockers & own;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the squares the piece could move to ignoring check, including
+     * squares held by its own team (the caller masks those off)
+     */
+    static long pseudoTargets(ChessBoard board, ChessPiece piece, int from, long occupied) {
+        return switch (piece.getPieceType()) {
+            case PAWN -> pawnTargets(board, piece.getTeamColor(), from, occupied);
+            case KNIGHT -> Bitboards.KNIGHT_ATTACKS[from];
+            case KING -> Bitboards.KING_ATTACKS[from];
+            case BISHOP -> Bitboards.bishopAttacks(from, occupied);
+            case ROOK -> Bitboards.rookAttacks(from, occupied);
+            case QUEEN -> Bitboards.bishopAttacks(from, occupied) | Bitboards.rookAttacks(from, occupied);
+        };
+    }
+
+    private static long pawnTargets(ChessBoard board, ChessGame.TeamColor color, int from, long occupied) {
+        long captures = Bitboards.PAWN_ATTACKS[color.ordinal()][from] & board.pieces(opponent(color));
+        int row = Bitboards.row(from);
+        if (color == ChessGame.TeamColor.WHITE) {
+            if (row == 8 || (occupied & Bitboards.bit(from + 8)) != 0) {
+                return captures;
+            }
+            long pushes = Bitboards.bit(from + 8);
+            if (row == 2 && (occupied & Bitboards.bit(from + 16)) == 0) {
+                pushes |= Bitboards.bit(from + 16);
+            }
+            return captures | pushes;
+        }
+        if (row == 1 || (occupied & Bitboards.bit(from - 8)) != 0) {
+            return captures;
+        }
+        long pushes = Bitboards.bit(from - 8);
+        if (row == 7 && (occupied & Bitboards.bit(from - 16)) == 0) {
+            pushes |= Bitboards.bit(from - 16);
+        }
+        return captures | pushes;
+    }
+
+    private boolean isPromotingPawn(int from) {
+        return isPromotingPawn(board.getPiece(from), from);
+    }
+
+    private static boolean isPromotingPawn(ChessPiece piece, int from) {
+        if (piece.getPieceType() != ChessPiece.PieceType.PAWN) {
+            return false;
+        }
+        return Bitboards.row(from) == (piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 7 : 2);
+    }
+
+    private static void addMoves(int from, long targets, boolean promotes, MoveList moves) {
+        for (; targets != 0; targets = Bitboards.dropFirst(targets)) {
+            int to = Bitboards.first(targets);
+            if (!promotes) {
+                moves.add(Move.of(from, to));
+                continue;
+            }
+            for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                moves.add(Move.of(from, to, promotion));
+            }
+        }
+    }
+
+    static ChessGame.TeamColor opponent(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    /**
+     * Walks the side's pieces, working out one piece's targets only once the
+     * previous piece's moves have all been handed out.
+     */
+    private static final class LegalMoveIterator implements Iterator<ChessMove> {
+        private final MoveGenerator generator;
+        private long pieces;
+        private int from;
+        private boolean promotes;
+        private long targets;
+        private int promotion;
+
+        LegalMoveIterator(MoveGenerator generator) {
+            this.generator = generator;
+            pieces = generator.own;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (targets == 0) {
+                if (pieces == 0) {
+                    return false;
+                }
+                from = Bitboards.first(pieces);
+                pieces = Bitboards.dropFirst(pieces);
+                targets = generator.legalTargets(from);
+                promotes = generator.isPromotingPawn(from);
+                promotion = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public ChessMove next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int to = Bitboards.first(targets);
+            if (!promotes) {
+                targets = Bitboards.dropFirst(targets);
+                return Move.toChessMove(Move.of(from, to));
+            }
+            ChessPiece.PieceType type = PROMOTIONS[promotion++];
+            if (promotion == PROMOTIONS.length) {
+                promotion = 0;
+                targets = Bitboards.dropFirst(targets);
+            }
+            return Move.toChessMove(Move.of(from, to, type));
+        }
+    }
+}
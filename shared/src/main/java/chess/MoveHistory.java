@@ -0,0 +1,189 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * The moves of a game in the order they were made, with what each one
+ * captured and the key of the position it was made from.
+ * <p>
+ * Everything is kept in parallel primitive arrays that only grow, so making
+ * a move appends three values and taking it back pops them, both in constant
+ * time. Each move is one int: its {@link Move} encoding in bits 0-14 and the
+ * captured piece in bits 15-18, 0 for none and otherwise
+ * {@code ChessBoard.index(color, type) + 1}.
+ * <p>
+ * The history also counts the plies since the last capture or pawn move,
+ * the halfmove clock of the 50- and 75-move rules. Neither can be taken
+ * back on the board, so no position from before one can recur; a
+ * repetition search only needs to look that far back.
+ */
+final class MoveHistory {
+    private static final int CAPTURE_SHIFT = 15;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+
+    private int[] moves = new int[64];
+    private long[] keys = new long[64];
+    private int[] clocks = new int[64];
+    private int size;
+    private int reversiblePlies;
+
+    /**
+     * Records a move that has just been made.
+     *
+     * @param moved     the piece that made it, before any promotion
+     * @param captured  the piece it captured, or null
+     * @param keyBefore the position key before the move
+     */
+    void push(int move, ChessPiece moved, ChessPiece captured, long keyBefore) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            clocks = Arrays.copyOf(clocks, size * 2);
+        }
+        moves[size] = move | (code(captured) << CAPTURE_SHIFT);
+        keys[size] = keyBefore;
+        clocks[size] = reversiblePlies;
+        size++;
+        boolean irreversible = captured != null || moved.getPieceType() == ChessPiece.PieceType.PAWN;
+        reversiblePlies = irreversible ? 0 : reversiblePlies + 1;
+    }
+
+    /**
+     * Forgets the last move.
+     *
+     * @return the packed move, for {@link #move(int)} and {@link #captured(int)}
+     */
+    int pop() {
+        size--;
+        reversiblePlies = clocks[size];
+        return moves[size];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the packed move made at the given ply, 0 being the first
+     */
+    int get(int ply) {
+        return moves[ply];
+    }
+
+    /**
+     * @return the plies since the last capture or pawn move
+     */
+    int reversiblePlies() {
+        return reversiblePlies;
+    }
+
+    /**
+     * Counts the earlier positions equal to the current one. Only positions
+     * with the same side to move, every second ply, and only those since the
+     * last irreversible move are compared.
+     *
+     * @param currentKey the key of the position after the last move
+     */
+    int repetitions(long currentKey) {
+        int count = 0;
+        int oldest = Math.max(0, size - reversiblePlies);
+        for (int ply = size - 2; ply >= oldest; ply -= 2) {
+            if (keys[ply] == currentKey) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    void clear() {
+        startFrom(0);
+    }
+
+    /**
+     * Forgets every move, starting over from a position reached the given
+     * number of plies after the last capture or pawn move.
+     */
+    void startFrom(int reversiblePlies) {
+        size = 0;
+        this.reversiblePlies = reversiblePlies;
+    }
+
+    /**
+     * @return a copy of the packed moves, oldest first
+     */
+    int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * @return a copy of the packed moves made since the last capture or pawn
+     * move, oldest first: as far back as a repetition search looks. None of
+     * them captured anything, so each is just its {@link Move} encoding.
+     */
+    int[] reversibleMoves() {
+        return Arrays.copyOfRange(moves, size - Math.min(size, reversiblePlies), size);
+    }
+
+    /**
+     * Rebuilds a history from its packed moves and the position they led to,
+     * by taking them back one by one on a copy of the board.
+     *
+     * @param reversiblePlies the plies since the last capture or pawn move
+     *                        in the current position, which tells how long
+     *                        before the first move that was
+     *
+     * @throws IllegalArgumentException if the moves cannot have led to the
+     *                                  position
+     */
+    static MoveHistory replay(int[] packed, ChessBoard current, ChessGame.TeamColor turn, int reversiblePlies) {
+        ChessBoard board = new ChessBoard(current);
+        ChessGame.TeamColor side = turn;
+        long[] keysBefore = new long[packed.length];
+        ChessPiece[] movers = new ChessPiece[packed.length];
+        for (int ply = packed.length - 1; ply >= 0; ply--) {
+            int move = move(packed[ply]);
+            side = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            ChessPiece placed = board.getPiece(Move.to(move));
+            if (move == Move.NONE || placed == null || placed.getTeamColor() != side
+                    || board.getPiece(Move.from(move)) != null) {
+                throw new IllegalArgumentException("Move history does not lead to the position");
+            }
+            board.undoMove(move, captured(packed[ply]));
+            movers[ply] = board.getPiece(Move.from(move));
+            long key = board.zobristKey();
+            keysBefore[ply] = side == ChessGame.TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
+        }
+        MoveHistory history = new MoveHistory();
+        history.startFrom(Math.max(0, reversiblePlies - packed.length));
+        for (int ply = 0; ply < packed.length; ply++) {
+            history.push(move(packed[ply]), movers[ply], captured(packed[ply]), keysBefore[ply]);
+        }
+        return history;
+    }
+
+    /**
+     * @return the {@link Move} encoding of a packed move
+     */
+    static int move(int packed) {
+        return packed & ((1 << CAPTURE_SHIFT) - 1);
+    }
+
+    /**
+     * @return the piece a packed move captured, or null
+     */
+    static ChessPiece captured(int packed) {
+        int code = (packed >>> CAPTURE_SHIFT) & 0xF;
+        if (code == 0) {
+            return null;
+        }
+        if (code > 2 * TYPES.length) {
+            throw new IllegalArgumentException("Invalid captured piece code " + code);
+        }
+        return ChessPiece.of(COLORS[(code - 1) / TYPES.length], TYPES[(code - 1) % TYPES.length]);
+    }
+
+    private static int code(ChessPiece piece) {
+        return piece == null ? 0 : ChessBoard.index(piece.getTeamColor(), piece.getPieceType()) + 1;
+    }
+}
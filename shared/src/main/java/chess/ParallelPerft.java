@@ -0,0 +1,212 @@
+package chess;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * {@link Perft} spread over a {@link ForkJoinPool}.
+ * <p>
+ * The first {@value #SPLIT_PLIES} plies of the tree are split into one task
+ * per move, each working on its own copy of the board; below that each task
+ * walks its subtree sequentially with make/unmake, like {@code Perft}. The
+ * counts are summed as the tasks join, so the results match {@code Perft}
+ * exactly.
+ * <p>
+ * With a cache, the count of every subtree at least two plies deep is
+ * remembered by position and depth, so transpositions are counted once. The
+ * cache is shared by all tasks and kept between calls.
+ * <pre>
+ * mvn -pl shared exec:java -Dexec.mainClass=chess.ParallelPerft -Dexec.args="6"
+ * mvn -pl shared exec:java -Dexec.mainClass=chess.ParallelPerft -Dexec.args="6" -Dperft.threads=8 -Dperft.cacheMb=256
+ * </pre>
+ */
+public final class ParallelPerft {
+    private static final int SPLIT_PLIES = 2;
+    /** Subtrees shallower than this are cheaper to walk than to fork. */
+    private static final int MIN_SPLIT_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+    private final PerftCache cache;
+
+    /**
+     * Counts on the common pool without a cache.
+     */
+    public ParallelPerft() {
+        this(ForkJoinPool.commonPool(), 0);
+    }
+
+    /**
+     * @param pool           the pool to run the tasks in
+     * @param cacheMegabytes size of the subtree cache, or 0 for none
+     */
+    public ParallelPerft(ForkJoinPool pool, int cacheMegabytes) {
+        this.pool = pool;
+        this.cache = cacheMegabytes == 0 ? null : new PerftCache(cacheMegabytes);
+    }
+
+    /**
+     * Counts the positions reachable in exactly {@code depth} moves from the
+     * game's current position. The game is not modified.
+     */
+    public long perft(ChessGame game, int depth) {
+        ChessBoard board = new ChessBoard(game.getBoard());
+        return pool.invoke(new Subtree(board, game.getTeamTurn(), depth, 0));
+    }
+
+    /**
+     * Like {@link #perft(ChessGame, int)}, but broken down by root move.
+     *
+     * @return the node count below each legal root move, in generation order
+     */
+    public Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        MoveList moves = new MoveList();
+        MoveGenerator.legalMoves(board, side, moves);
+
+        List<Subtree> tasks = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            tasks.add(child(board, moves.get(i), MoveGenerator.opponent(side), depth - 1, 1));
+        }
+        for (Subtree task : tasks) {
+            pool.execute(task);
+        }
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            counts.put(Move.toChessMove(moves.get(i)), tasks.get(i).join());
+        }
+        return counts;
+    }
+
+    private Subtree child(ChessBoard board, int move, ChessGame.TeamColor side, int depth, int ply) {
+        ChessBoard copy = new ChessBoard(board);
+        copy.applyMove(move);
+        return new Subtree(copy, side, depth, ply);
+    }
+
+    private final class Subtree extends RecursiveTask<Long> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient ChessBoard board;
+        private final ChessGame.TeamColor side;
+        private final int depth;
+        private final int ply;
+
+        Subtree(ChessBoard board, ChessGame.TeamColor side, int depth, int ply) {
+            this.board = board;
+            this.side = side;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Long compute() {
+            if (ply >= SPLIT_PLIES || depth < MIN_SPLIT_DEPTH) {
+                return count(board, side, depth, buffers(depth), 0);
+            }
+            long key = cache == null ? 0 : PerftCache.key(board, side, depth);
+            if (cache != null) {
+                long cached = cache.probe(key);
+                if (cached >= 0) {
+                    return cached;
+                }
+            }
+            MoveList moves = new MoveList();
+            MoveGenerator.legalMoves(board, side, moves);
+            List<Subtree> tasks = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                tasks.add(child(board, moves.get(i), MoveGenerator.opponent(side), depth - 1, ply + 1));
+            }
+            long nodes = 0;
+            for (Subtree task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            if (cache != null) {
+                cache.store(key, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * The sequential walk below the split plies; see {@link Perft}.
+     */
+    private long count(ChessBoard board, ChessGame.TeamColor side, int depth, MoveList[] buffers, int ply) {
+        if (depth <= 0) {
+            return 1;
+        }
+        long key = 0;
+        if (cache != null && depth >= 2) {
+            key = PerftCache.key(board, side, depth);
+            long cached = cache.probe(key);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+        MoveList moves = buffers[ply];
+        moves.clear();
+        MoveGenerator.legalMoves(board, side, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        ChessGame.TeamColor next = MoveGenerator.opponent(side);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            ChessPiece captured = board.applyMove(move);
+            nodes += count(board, next, depth - 1, buffers, ply + 1);
+            board.undoMove(move, captured);
+        }
+        if (cache != null) {
+            cache.store(key, nodes);
+        }
+        return nodes;
+    }
+
+    private static MoveList[] buffers(int depth) {
+        MoveList[] buffers = new MoveList[Math.max(1, depth)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new MoveList();
+        }
+        return buffers;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: ParallelPerft <depth> [<fen>]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        String fen = args.length > 1 ? String.join(" ", List.of(args).subList(1, args.length)) : Perft.START_POSITION;
+        ChessGame game = Perft.load(fen);
+        int threads = Integer.getInteger("perft.threads", Runtime.getRuntime().availableProcessors());
+        int cacheMegabytes = Integer.getInteger("perft.cacheMb", 0);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            Map<ChessMove, Long> counts = new ParallelPerft(pool, cacheMegabytes).divide(game, depth);
+            long elapsed = System.nanoTime() - start;
+
+            long nodes = 0;
+            for (Map.Entry<ChessMove, Long> entry : counts.entrySet()) {
+                System.out.println(Perft.notation(entry.getKey()) + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+            long millis = Math.max(1, elapsed / 1_000_000);
+            System.out.println();
+            System.out.println("Threads: " + threads + (cacheMegabytes > 0 ? ", cache " + cacheMegabytes + " MB" : ""));
+            System.out.println("Nodes: " + nodes);
+            System.out.println("Time: " + millis + " ms");
+            System.out.println("NPS: " + nodes * 1000 / millis);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * The counts are a correctness oracle for move generation, since any missing
+ * or extra move changes them, and the timing gives a throughput baseline.
+ * <p>
+ * Run from the command line with a depth and an optional position in FEN
+ * (the placement and side-to-move fields are enough):
+ * <pre>
+ * mvn -pl shared exec:java -Dexec.args="5"
+ * mvn -pl shared exec:java -Dexec.args="4 8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w"
+ * </pre>
+ * This prints the node count under each root move ("divide"), the total, the
+ * elapsed time and nodes per second.
+ */
+public final class Perft {
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w";
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the positions reachable in exactly {@code depth} moves from the
+     * game's current position. The game is left unchanged.
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game.getBoard(), game.getTeamTurn(), depth);
+    }
+
+    /**
+     * Like {@link #perft(ChessGame, int)}, but broken down by root move.
+     *
+     * @return the node count below each legal root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        MoveList[] buffers = buffers(depth);
+        MoveList moves = buffers[0];
+        MoveGenerator.legalMoves(board, side, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            ChessPiece captured = board.applyMove(move);
+            long nodes = depth <= 1 ? 1 : perft(board, MoveGenerator.opponent(side), depth - 1, buffers, 1);
+            board.undoMove(move, captured);
+            counts.put(Move.toChessMove(move), nodes);
+        }
+        return counts;
+    }
+
+    private static long perft(ChessBoard board, ChessGame.TeamColor side, int depth) {
+        return perft(board, side, depth, buffers(depth), 0);
+    }
+
+    /**
+     * @param buffers one move list per ply, reused across siblings so the
+     *                search allocates nothing once it is running
+     */
+    private static long perft(ChessBoard board, ChessGame.TeamColor side, int depth, MoveList[] buffers, int ply) {
+        if (depth <= 0) {
+            return 1;
+        }
+        MoveList moves = buffers[ply];
+        moves.clear();
+        MoveGenerator.legalMoves(board, side, moves);
+        if (depth == 1) {
+            // bulk counting: the legal moves at the last ply are the leaves
+            return moves.size();
+        }
+        long nodes = 0;
+        ChessGame.TeamColor next = MoveGenerator.opponent(side);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            ChessPiece captured = board.applyMove(move);
+            nodes += perft(board, next, depth - 1, buffers, ply + 1);
+            board.undoMove(move, captured);
+        }
+        return nodes;
+    }
+
+    private static MoveList[] buffers(int depth) {
+        MoveList[] buffers = new MoveList[Math.max(1, depth)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new MoveList();
+        }
+        return buffers;
+    }
+
+    /**
+     * Builds a game from a FEN string; see {@link ChessGame#fromFen(String)}.
+     */
+    public static ChessGame load(String fen) {
+        return ChessGame.fromFen(fen);
+    }
+
+    static String notation(ChessMove move) {
+        return Move.toString(Move.of(move));
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: Perft <depth> [<fen>]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        String fen = args.length > 1 ? String.join(" ", List.of(args).subList(1, args.length)) : START_POSITION;
+        ChessGame game = load(fen);
+
+        long start = System.nanoTime();
+        Map<ChessMove, Long> counts = divide(game, depth);
+        long elapsed = System.nanoTime() - start;
+
+        long nodes = 0;
+        for (Map.Entry<ChessMove, Long> entry : counts.entrySet()) {
+            System.out.println(notation(entry.getKey()) + ": " + entry.getValue());
+            nodes += entry.getValue();
+        }
+        long millis = Math.max(1, elapsed / 1_000_000);
+        System.out.println();
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Time: " + millis + " ms");
+        System.out.println("NPS: " + nodes * 1000 / millis);
+    }
+}
@@ -0,0 +1,58 @@
+package chess;
+
+/**
+ * A fixed-size table of perft subtree counts, keyed by position, side to move
+ * and remaining depth, shared by any number of threads without locks.
+ * <p>
+ * Each entry is the key XORed with the stored word, then the word itself, so
+ * an entry torn by two threads writing at once reads as a miss rather than
+ * as another subtree's count. Newer entries always replace older ones.
+ */
+final class PerftCache {
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final long DEPTH_MIX = 0x9E3779B97F4A7C15L;
+
+    private final long[] table;
+    private final int mask;
+
+    /**
+     * @param megabytes memory for the table; rounded down to a power-of-two
+     *                  number of entries
+     */
+    PerftCache(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Perft cache needs at least 1 MB");
+        }
+        long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        entries = Math.min(entries, 1L << 29);
+        table = new long[(int) (entries * 2)];
+        mask = (int) (entries - 1);
+    }
+
+    static long key(ChessBoard board, ChessGame.TeamColor side, int depth) {
+        long key = board.zobristKey() ^ depth * DEPTH_MIX;
+        return side == ChessGame.TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
+    }
+
+    /**
+     * @return the stored count, or -1 if there is none for the key
+     */
+    long probe(long key) {
+        int slot = slot(key);
+        long data = table[slot + 1];
+        long check = table[slot];
+        // counts are stored plus one so an empty slot never matches
+        return data != 0 && (check ^ data) == key ? data - 1 : -1;
+    }
+
+    void store(long key, long count) {
+        int slot = slot(key);
+        long data = count + 1;
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    private int slot(long key) {
+        return ((int) key & mask) << 1;
+    }
+}
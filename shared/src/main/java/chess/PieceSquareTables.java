@@ -0,0 +1,133 @@
+package chess;
+
+/**
+ * Material and piece-square values, in centipawns, as one score per
+ * (piece, square) pair: positive for white pieces and negative for black
+ * ones, so a position's score is the sum over its pieces. The board keeps
+ * that sum up to date as pieces move, see {@link ChessBoard#materialScore()}.
+ * <p>
+ * The piece-square tables are written from white's point of view with rank 8
+ * on the first line, so a white piece on square {@code s} reads entry
+ * {@code s ^ 56} and a black piece reads entry {@code s}.
+ */
+public final class PieceSquareTables {
+    /** Piece values indexed by {@code PieceType} ordinal. */
+    private static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+
+    private static final int[][] TABLES = {
+            // KING
+            {
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -20, -30, -30, -40, -40, -30, -30, -20,
+                    -10, -20, -20, -20, -20, -20, -20, -10,
+                    20, 20, 0, 0, 0, 0, 20, 20,
+                    20, 30, 10, 0, 0, 10, 30, 20
+            },
+            // QUEEN
+            {
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -5, 0, 5, 5, 5, 5, 0, -5,
+                    0, 0, 5, 5, 5, 5, 0, -5,
+                    -10, 5, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 5, 0, 0, 0, 0, -10,
+                    -20, -10, -10, -5, -5, -10, -10, -20
+            },
+            // BISHOP
+            {
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 5, 5, 10, 10, 5, 5, -10,
+                    -10, 0, 10, 10, 10, 10, 0, -10,
+                    -10, 10, 10, 10, 10, 10, 10, -10,
+                    -10, 5, 0, 0, 0, 0, 5, -10,
+                    -20, -10, -10, -10, -10, -10, -10, -20
+            },
+            // KNIGHT
+            {
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -30, 5, 15, 20, 20, 15, 5, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 5, 10, 15, 15, 10, 5, -30,
+                    -40, -20, 0, 5, 5, 0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50
+            },
+            // ROOK
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    5, 10, 10, 10, 10, 10, 10, 5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    0, 0, 0, 5, 5, 0, 0, 0
+            },
+            // PAWN
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    50, 50, 50, 50, 50, 50, 50, 50,
+                    10, 10, 20, 30, 30, 20, 10, 10,
+                    5, 5, 10, 25, 25, 10, 5, 5,
+                    0, 0, 0, 20, 20, 0, 0, 0,
+                    5, -5, -10, 0, 0, -10, -5, 5,
+                    5, 10, 10, -20, -20, 10, 10, 5,
+                    0, 0, 0, 0, 0, 0, 0, 0
+            }
+    };
+
+    private static final int[][] SCORES = new int[12][64];
+
+    static {
+        for (int type = 0; type < VALUES.length; type++) {
+            for (int square = 0; square < 64; square++) {
+                SCORES[type][square] = VALUES[type] + TABLES[type][square ^ 56];
+                SCORES[VALUES.length + type][square] = -(VALUES[type] + TABLES[type][square]);
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * @param piece  index from {@code ChessBoard.index(color, type)}
+     * @param square 0-63 square
+     * @return the piece's value on that square, negative for black pieces
+     */
+    public static int score(int piece, int square) {
+        return SCORES[piece][square];
+    }
+
+    /**
+     * @return the material value of a piece type in centipawns (0 for kings)
+     */
+    public static int value(ChessPiece.PieceType type) {
+        return VALUES[type.ordinal()];
+    }
+
+    /**
+     * Sums the board's pieces from scratch; the board's own
+     * {@link ChessBoard#materialScore()} gives the same result without the
+     * scan.
+     *
+     * @return the score from white's point of view
+     */
+    public static int score(ChessBoard board) {
+        int score = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                score += SCORES[ChessBoard.index(piece.getTeamColor(), piece.getPieceType())][square];
+            }
+        }
+        return score;
+    }
+}
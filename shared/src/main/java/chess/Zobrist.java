@@ -0,0 +1,40 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of one key per
+ * (piece, square) pair on the board, plus {@link #BLACK_TO_MOVE} when it is
+ * black's turn, so moving a piece updates it with two or three XORs.
+ * <p>
+ * The keys come from a fixed seed, so a key means the same position in every
+ * JVM and can be stored or sent over the network.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] keys : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param piece  index from {@code ChessBoard.index(color, type)}
+     * @param square 0-63 square
+     * @return the key for that piece standing on that square
+     */
+    public static long pieceSquare(int piece, int square) {
+        return PIECE_SQUARE[piece][square];
+    }
+}
@@ -0,0 +1,62 @@
+package chess.engine;
+
+/**
+ * Evaluates every position of a {@link PositionBatch} at once, with the same
+ * material and piece-square score as {@link Evaluator}.
+ * <p>
+ * Two implementations give identical results. {@link #scalar()} runs
+ * anywhere. {@link #vector()} uses the {@code jdk.incubator.vector} API to
+ * score a whole vector of positions per instruction, one square at a time; it
+ * needs the JVM to be started with {@code --add-modules jdk.incubator.vector}.
+ * {@link #create()} picks the vector one when the module is present and the
+ * hardware has vectors of at least 16 shorts (AVX2 or wider), and falls back
+ * to the scalar one otherwise.
+ * <p>
+ * Evaluators hold no state between calls, so one can be shared by any number
+ * of threads, each with its own batch.
+ */
+public interface BatchEvaluator {
+
+    /**
+     * Scores the batch's positions, each for its own side to move: positive
+     * when that side is ahead, in centipawns.
+     *
+     * @param scores receives one score per position, at least
+     *               {@code batch.size()} long
+     */
+    void evaluate(PositionBatch batch, int[] scores);
+
+    /**
+     * @return the vector evaluator if the JVM has the vector module and the
+     * hardware runs it natively, the scalar one otherwise
+     */
+    static BatchEvaluator create() {
+        return vectorSupported() && VectorBatchEvaluator.isNative() ? vector() : scalar();
+    }
+
+    static BatchEvaluator scalar() {
+        return ScalarBatchEvaluator.INSTANCE;
+    }
+
+    /**
+     * Returns the vector evaluator even where the hardware's vectors are too
+     * narrow for it and it runs emulated, slower than {@link #scalar()}.
+     *
+     * @throws UnsupportedOperationException if the JVM was started without
+     *                                       the vector module
+     */
+    static BatchEvaluator vector() {
+        if (!vectorSupported()) {
+            throw new UnsupportedOperationException(
+                    "The vector evaluator needs the JVM option --add-modules jdk.incubator.vector");
+        }
+        return VectorBatchEvaluator.INSTANCE;
+    }
+
+    /**
+     * @return true if the {@code jdk.incubator.vector} module is loaded
+     */
+    static boolean vectorSupported() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+}
@@ -0,0 +1,173 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * A material combination covered by the tablebase: a king and a few pieces
+ * for the strong side against a lone king, named like {@code KBNK}. Only the
+ * endings in {@link TablebaseGenerator#ENDINGS} exist.
+ * <p>
+ * Positions are numbered with white as the strong side:
+ * <pre>
+ * index = ((side * 64 + whiteKing) * 64 + blackKing) * 64 ... + lastPiece
+ * </pre>
+ * where {@code side} is 0 with white to move and 1 with black to move, and
+ * the white pieces follow in the order of the name. A position with black as
+ * the strong side is looked up with the board mirrored top to bottom and the
+ * colors swapped.
+ */
+final class Ending {
+    private static final String PIECE_LETTERS = "QRBNP";
+    private static final ChessPiece.PieceType[] LETTER_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.PAWN
+    };
+
+    final String name;
+    /** The strong side's pieces besides its king, in index order. */
+    final ChessPiece.PieceType[] pieces;
+    /** Number of indexes: both sides to move, every placement of every piece. */
+    final int size;
+
+    private Ending(String name, ChessPiece.PieceType[] pieces) {
+        this.name = name;
+        this.pieces = pieces;
+        this.size = 2 << (6 * (pieces.length + 2));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the name is not one of
+     *                                  {@link TablebaseGenerator#ENDINGS}
+     */
+    static Ending of(String name) {
+        if (!TablebaseGenerator.ENDINGS.contains(name)) {
+            throw new IllegalArgumentException("Unsupported ending: " + name);
+        }
+        String letters = name.substring(1, name.length() - 1);
+        ChessPiece.PieceType[] pieces = new ChessPiece.PieceType[letters.length()];
+        for (int i = 0; i < letters.length(); i++) {
+            pieces[i] = LETTER_TYPES[PIECE_LETTERS.indexOf(letters.charAt(i))];
+        }
+        return new Ending(name, pieces);
+    }
+
+    /**
+     * @return the name of the board's material, strong side first, or null if
+     * both sides have more than a king or a piece type is doubled
+     */
+    static String name(ChessBoard board) {
+        String white = letters(board, ChessGame.TeamColor.WHITE);
+        String black = letters(board, ChessGame.TeamColor.BLACK);
+        if (white == null || black == null || (!white.isEmpty() && !black.isEmpty())) {
+            return null;
+        }
+        return "K" + white + black + "K";
+    }
+
+    /**
+     * @return the board's strong side: the one with pieces besides its king
+     */
+    static ChessGame.TeamColor strongSide(ChessBoard board) {
+        return board.pieces(ChessGame.TeamColor.BLACK) == board.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)
+                ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    /**
+     * @return the index of the position, which must have this ending's
+     * material, with {@code side} to move
+     */
+    int index(ChessBoard board, ChessGame.TeamColor side) {
+        ChessGame.TeamColor strong = strongSide(board);
+        ChessGame.TeamColor weak = strong == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int flip = strong == ChessGame.TeamColor.WHITE ? 0 : 56;
+        int index = side == strong ? 0 : 1;
+        index = index * 64 + (board.kingSquare(strong) ^ flip);
+        index = index * 64 + (board.kingSquare(weak) ^ flip);
+        for (ChessPiece.PieceType type : pieces) {
+            index = index * 64 + (Bitboards.first(board.pieces(strong, type)) ^ flip);
+        }
+        return index;
+    }
+
+    /**
+     * Reads the squares of an index: white king, black king, then the white
+     * pieces.
+     *
+     * @return 0 if white is to move, 1 if black is
+     */
+    int decode(int index, int[] squares) {
+        for (int i = pieces.length + 1; i >= 0; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        return index;
+    }
+
+    int encode(int side, int[] squares) {
+        int index = side;
+        for (int i = 0; i < pieces.length + 2; i++) {
+            index = index * 64 + squares[i];
+        }
+        return index;
+    }
+
+    /**
+     * Places the pieces of decoded squares on an empty board.
+     *
+     * @return false, leaving the board empty, if two pieces share a square or
+     * a pawn is on the first or last rank
+     */
+    boolean place(ChessBoard board, int[] squares) {
+        for (int i = 0; i < squares.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (squares[i] == squares[j]) {
+                    return false;
+                }
+            }
+        }
+        for (int i = 0; i < pieces.length; i++) {
+            int row = squares[i + 2] >>> 3;
+            if (pieces[i] == ChessPiece.PieceType.PAWN && (row == 0 || row == 7)) {
+                return false;
+            }
+        }
+        board.addPiece(Bitboards.position(squares[0]),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(Bitboards.position(squares[1]),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        for (int i = 0; i < pieces.length; i++) {
+            board.addPiece(Bitboards.position(squares[i + 2]),
+                    ChessPiece.of(ChessGame.TeamColor.WHITE, pieces[i]));
+        }
+        return true;
+    }
+
+    /**
+     * Empties the squares filled by {@link #place}.
+     */
+    void clear(ChessBoard board, int[] squares) {
+        for (int square : squares) {
+            board.addPiece(Bitboards.position(square), null);
+        }
+    }
+
+    private static String letters(ChessBoard board, ChessGame.TeamColor color) {
+        if (Long.bitCount(board.pieces(color, ChessPiece.PieceType.KING)) != 1) {
+            return null;
+        }
+        StringBuilder letters = new StringBuilder();
+        for (int i = 0; i < LETTER_TYPES.length; i++) {
+            int count = Long.bitCount(board.pieces(color, LETTER_TYPES[i]));
+            if (count > 1) {
+                return null;
+            }
+            if (count == 1) {
+                letters.append(PIECE_LETTERS.charAt(i));
+            }
+        }
+        return letters.toString();
+    }
+}
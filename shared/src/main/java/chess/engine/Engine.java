@@ -0,0 +1,477 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.Zobrist;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Iterative-deepening principal variation search.
+ * <p>
+ * Each iteration searches one ply deeper than the last with alpha-beta,
+ * searching the first move of every node with the full window and the rest
+ * with a null window, re-searching only the moves that beat it. Moves come
+ * from a {@link MovePicker} in stages: the previous iteration's principal
+ * variation, the table move, winning captures, killers, quiet moves by
+ * history and finally losing captures. At the horizon a quiescence search
+ * keeps resolving captures and promotions that do not lose material, so a
+ * position is never scored in the middle of an exchange. Checks extend the
+ * search by one ply.
+ * <p>
+ * Results are kept in a {@link TranspositionTable}: outside the principal
+ * variation a deep enough stored bound ends the node without searching it.
+ * Killers and history live in the engine's own {@link MoveOrdering}, so
+ * engines searching in parallel each learn their own.
+ * <p>
+ * Positions are scored by {@link Evaluator}, or by an {@link Nnue} network
+ * when one is given; its accumulators are kept per ply and updated move by
+ * move.
+ * <p>
+ * The search works on a private copy of the game's board, making and taking
+ * back {@link Move}-encoded moves in place. An engine runs one search at a
+ * time; {@link #cancel()} may be called from any thread. Engines sharing a
+ * table can search the same position in parallel, see {@link ParallelEngine}.
+ */
+public final class Engine {
+    /** Score of a mate at the root; a mate n plies away scores {@code MATE - n}. */
+    public static final int MATE = 32000;
+    /** Deepest ply the search reaches, including quiescence and extensions. */
+    public static final int MAX_PLY = 128;
+    /** Transposition table size used by {@link #Engine()}. */
+    public static final int DEFAULT_HASH_MB = 16;
+
+    private static final int INFINITY = MATE + 1;
+    private static final int MAX_MOVES = 256;
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final TranspositionTable table;
+    private final Nnue network;
+    private final Nnue.Accumulator[] accumulators;
+
+    private final MoveOrdering ordering = new MoveOrdering();
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private final int[][] quietsSearched = new int[MAX_PLY][MAX_MOVES];
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final int[] previousPv = new int[MAX_PLY];
+    private int previousPvLength;
+    private boolean followPv;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor rootSide;
+    private int maxDepth;
+    private long start;
+    private long nodes;
+    private volatile long publishedNodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean cancelled;
+
+    public Engine() {
+        this(new TranspositionTable(DEFAULT_HASH_MB));
+    }
+
+    /**
+     * @param table the transposition table to use; it keeps its contents
+     *              between searches
+     */
+    public Engine(TranspositionTable table) {
+        this(table, null);
+    }
+
+    /**
+     * @param table   the transposition table to use; it keeps its contents
+     *                between searches
+     * @param network the network to evaluate positions with, or null for the
+     *                piece-square evaluation
+     */
+    public Engine(TranspositionTable table, Nnue network) {
+        this.table = table;
+        this.network = network;
+        accumulators = network == null ? null : new Nnue.Accumulator[MAX_PLY + 1];
+        if (network != null) {
+            for (int ply = 0; ply <= MAX_PLY; ply++) {
+                accumulators[ply] = network.newAccumulator();
+            }
+        }
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker(ordering, MAX_MOVES);
+        }
+    }
+
+    /**
+     * Searches the game's current position for the side to move.
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, result -> {
+        });
+    }
+
+    /**
+     * Searches the game's current position for the side to move, reporting
+     * each completed iteration to {@code onIteration}. The game is not
+     * modified.
+     *
+     * @return the result of the deepest completed iteration
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        long start = System.nanoTime();
+        table.newSearch();
+        prepare(game, limits, start);
+        return iterate(0, onIteration);
+    }
+
+    /**
+     * Sets up a search of the game's current position without starting it,
+     * so it can be cancelled from the moment this returns.
+     *
+     * @param start {@link System#nanoTime()} when the search was asked for
+     */
+    void prepare(ChessGame game, SearchLimits limits, long start) {
+        this.start = start;
+        board = new ChessBoard(game.getBoard());
+        rootSide = game.getTeamTurn();
+        nodes = 0;
+        publishedNodes = 0;
+        nodeLimit = limits.nodes() == 0 ? Long.MAX_VALUE : limits.nodes();
+        deadline = limits.timeMillis() == 0 ? Long.MAX_VALUE : start + limits.timeMillis() * 1_000_000L;
+        aborted = false;
+        cancelled = false;
+        previousPvLength = 0;
+        ordering.newSearch();
+        maxDepth = limits.depth() == 0 ? MAX_PLY / 2 : Math.min(limits.depth(), MAX_PLY / 2);
+        if (network != null) {
+            accumulators[0].refresh(board);
+        }
+    }
+
+    /**
+     * Runs the iterations of a prepared search.
+     *
+     * @param depthOffset how many plies deeper than usual each iteration
+     *                    searches, up to the depth limit; helper threads use
+     *                    it to stay out of step with each other
+     */
+    SearchResult iterate(int depthOffset, Consumer<SearchResult> onIteration) {
+        ChessGame.TeamColor side = rootSide;
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.legalMoves(board, side, rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = inCheck(side) ? -MATE : 0;
+            return new SearchResult(null, score, List.of(), 0, 0, System.nanoTime() - start);
+        }
+
+        SearchResult result = new SearchResult(Move.toChessMove(rootMoves.get(0)), 0,
+                List.of(Move.toChessMove(rootMoves.get(0))), 0, 0, 0);
+        for (int depth = Math.min(1 + depthOffset, maxDepth); depth <= maxDepth; depth++) {
+            followPv = true;
+            int score = negamax(depth, 0, -INFINITY, INFINITY, side);
+            publishedNodes = nodes;
+            if (aborted) {
+                break;
+            }
+            System.arraycopy(pv[0], 0, previousPv, 0, pvLength[0]);
+            previousPvLength = pvLength[0];
+            result = new SearchResult(Move.toChessMove(previousPv[0]), score, principalVariation(),
+                    depth, nodes, System.nanoTime() - start);
+            onIteration.accept(result);
+            if (Math.abs(score) >= MATE - depth) {
+                // a forced mate inside the horizon will not change with more depth
+                break;
+            }
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.principalVariation(),
+                result.depth(), nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Stops the search in progress as soon as possible; it returns the result
+     * of its last completed iteration.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return nodes visited by the current or last search; while it runs the
+     * count is refreshed every {@value #CHECK_INTERVAL} nodes, so other
+     * threads can read it
+     */
+    long nodes() {
+        return publishedNodes;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta, ChessGame.TeamColor side) {
+        pvLength[ply] = ply;
+        boolean inCheck = inCheck(side);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(ply, alpha, beta, side);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate(side, ply);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        long key = positionKey(side);
+        long entry = table.probe(key);
+        int hashMove = TranspositionTable.move(entry);
+        if (entry != 0 && ply > 0 && beta - alpha == 1 && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        MovePicker picker = pickers[ply];
+        int pvMove = followPv && ply < previousPvLength ? previousPv[ply] : Move.NONE;
+        picker.reset(board, side, ply, pvMove, hashMove, false);
+        if (picker.size() == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (pvMove == Move.NONE || !picker.contains(pvMove)) {
+            followPv = false;
+        }
+
+        ChessGame.TeamColor opponent = opponent(side);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        int[] quiets = quietsSearched[ply];
+        int quietCount = 0;
+        boolean first = true;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            boolean quiet = !MovePicker.isTactical(board, move);
+            ChessPiece captured = makeMove(move, ply);
+            int score;
+            if (first) {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha, opponent);
+            } else {
+                score = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha, opponent);
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, ply + 1, -beta, -alpha, opponent);
+                }
+            }
+            board.undoMove(move, captured);
+            followPv = false;
+            first = false;
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            ordering.recordCutoff(side, move, ply, depth);
+                            for (int i = 0; i < quietCount; i++) {
+                                ordering.recordFailure(side, quiets[i], depth);
+                            }
+                        }
+                        break;
+                    }
+                }
+            }
+            if (quiet) {
+                quiets[quietCount++] = move;
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Searches only captures and promotions until the position is quiet, so
+     * the static evaluation is never taken mid-exchange. Captures that lose
+     * material by static exchange are skipped: standing pat is at least as
+     * good. In check every evasion is searched, since standing pat is not an
+     * option.
+     */
+    private int quiesce(int ply, int alpha, int beta, ChessGame.TeamColor side) {
+        pvLength[ply] = ply;
+        if (countNode()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate(side, ply);
+        }
+        boolean inCheck = inCheck(side);
+        MovePicker picker = pickers[ply];
+        picker.reset(board, side, ply, Move.NONE, Move.NONE, !inCheck);
+        if (picker.size() == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = evaluate(side, ply);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+
+        ChessGame.TeamColor opponent = opponent(side);
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            ChessPiece captured = makeMove(move, ply);
+            int score = -quiesce(ply + 1, -beta, -alpha, opponent);
+            board.undoMove(move, captured);
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Applies a move to the board, and to the next ply's accumulator when
+     * a network evaluates.
+     */
+    private ChessPiece makeMove(int move, int ply) {
+        if (network == null) {
+            return board.applyMove(move);
+        }
+        ChessPiece moved = board.getPiece(Move.from(move));
+        ChessPiece captured = board.applyMove(move);
+        Nnue.Accumulator next = accumulators[ply + 1];
+        next.copyFrom(accumulators[ply]);
+        next.applyMove(move, moved, captured);
+        return captured;
+    }
+
+    private int evaluate(ChessGame.TeamColor side, int ply) {
+        return network == null ? Evaluator.evaluate(board, side) : network.evaluate(accumulators[ply], side);
+    }
+
+    /**
+     * @return true once a limit is hit or the search is cancelled; limits
+     * are only checked every {@value #CHECK_INTERVAL} nodes
+     */
+    private boolean countNode() {
+        nodes++;
+        if (nodes % CHECK_INTERVAL == 0) {
+            publishedNodes = nodes;
+            if (cancelled || System.nanoTime() >= deadline) {
+                aborted = true;
+            }
+        }
+        if (nodes >= nodeLimit) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private boolean inCheck(ChessGame.TeamColor side) {
+        int king = board.kingSquare(side);
+        return king >= 0 && board.isSquareAttacked(king, opponent(side));
+    }
+
+    private long positionKey(ChessGame.TeamColor side) {
+        long key = board.zobristKey();
+        return side == ChessGame.TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
+    }
+
+    /**
+     * Mate scores count plies from the root; the table stores them counted
+     * from the position itself, so they stay right wherever it recurs.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        return score <= -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        return score <= -MATE + MAX_PLY ? score + ply : score;
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    private List<ChessMove> principalVariation() {
+        List<ChessMove> line = new ArrayList<>(previousPvLength);
+        for (int i = 0; i < previousPvLength; i++) {
+            line.add(Move.toChessMove(previousPv[i]));
+        }
+        return line;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor side) {
+        return side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    /**
+     * Searches a position from the command line, printing each iteration:
+     * <pre>
+     * mvn -pl shared exec:java -Dexec.mainClass=chess.engine.Engine -Dexec.args="8"
+     * mvn -pl shared exec:java -Dexec.mainClass=chess.engine.Engine -Dexec.args="10 4k3/8/8/8/8/8/3q4/4K3 b"
+     * mvn -pl shared exec:java -Dexec.mainClass=chess.engine.Engine -Dexec.args="8" -Dengine.nnue=net.nnue
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: Engine <depth> [<fen>]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        ChessGame game = args.length > 1
+                ? ChessGame.fromFen(String.join(" ", List.of(args).subList(1, args.length)))
+                : new ChessGame();
+        String networkFile = System.getProperty("engine.nnue");
+        Nnue network = networkFile == null ? null : Nnue.load(Path.of(networkFile));
+        Engine engine = new Engine(new TranspositionTable(DEFAULT_HASH_MB), network);
+        SearchResult result = engine.search(game, SearchLimits.depth(depth), iteration -> {
+            StringBuilder line = new StringBuilder();
+            line.append("depth ").append(iteration.depth())
+                    .append(iteration.isMate() ? " mate " + iteration.mateIn() : " cp " + iteration.score())
+                    .append(" nodes ").append(iteration.nodes())
+                    .append(" nps ").append(iteration.nps())
+                    .append(" time ").append(iteration.elapsedNanos() / 1_000_000)
+                    .append(" pv");
+            for (ChessMove move : iteration.principalVariation()) {
+                line.append(' ').append(Move.toString(Move.of(move)));
+            }
+            System.out.println(line);
+        });
+        System.out.println("bestmove " + (result.bestMove() == null ? "(none)" : Move.toString(Move.of(result.bestMove()))));
+    }
+}
@@ -0,0 +1,35 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Static evaluation: material plus piece-square bonuses, in centipawns.
+ * <p>
+ * The board keeps the sum of its pieces' {@link PieceSquareTables} scores up
+ * to date on every move, so evaluating a position reads one field instead of
+ * scanning the board.
+ */
+public final class Evaluator {
+
+    private Evaluator() {
+    }
+
+    /**
+     * @return the position's score for {@code side}, positive when it is
+     * ahead
+     */
+    public static int evaluate(ChessBoard board, ChessGame.TeamColor side) {
+        int score = board.materialScore();
+        return side == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @return the material value of a piece type in centipawns (0 for kings)
+     */
+    public static int value(ChessPiece.PieceType type) {
+        return PieceSquareTables.value(type);
+    }
+}
@@ -0,0 +1,152 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.util.Arrays;
+
+/**
+ * The move-ordering knowledge one search thread gathers as it runs, in flat
+ * primitive tables so that neither lookups nor updates allocate:
+ * <ul>
+ * <li>two killer moves per ply: quiet moves that caused a beta cutoff in a
+ * sibling position, and likely do so again here;</li>
+ * <li>a history score per side and (from, to) pair, raised for every quiet
+ * move that causes a cutoff, by more the deeper the search;</li>
+ * <li>a static exchange evaluator, which plays out all captures on one
+ * square, least valuable attacker first, to tell winning captures from
+ * losing ones without searching them.</li>
+ * </ul>
+ * Every {@link Engine} has its own, so threads of a parallel search never
+ * share one.
+ */
+final class MoveOrdering {
+    /** History scores stay within {@code [-MAX_HISTORY, MAX_HISTORY]}. */
+    static final int MAX_HISTORY = 16384;
+
+    /** Values for the exchange evaluator, by {@code PieceType} ordinal: a king is never given up. */
+    private static final int[] SEE_VALUES = {20000, 900, 330, 320, 500, 100};
+    /** Attackers are tried in this order, cheapest first. */
+    private static final ChessPiece.PieceType[] CHEAPEST_FIRST = {
+            ChessPiece.PieceType.PAWN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING};
+
+    private final int[][] killers = new int[Engine.MAX_PLY][2];
+    private final int[] history = new int[2 * 64 * 64];
+    private final int[] gains = new int[32];
+
+    /**
+     * Prepares for a new search: killers are forgotten, since they belong to
+     * positions of the last one, and history is halved so it adapts quickly
+     * without starting over.
+     */
+    void newSearch() {
+        for (int[] ply : killers) {
+            Arrays.fill(ply, Move.NONE);
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] /= 2;
+        }
+    }
+
+    boolean isKiller(int move, int ply) {
+        return killers[ply][0] == move || killers[ply][1] == move;
+    }
+
+    int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    int history(ChessGame.TeamColor side, int move) {
+        return history[historyIndex(side, move)];
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff.
+     */
+    void recordCutoff(ChessGame.TeamColor side, int move, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int index = historyIndex(side, move);
+        int bonus = Math.min(depth * depth, MAX_HISTORY);
+        // the bonus shrinks as the score nears the cap, so it never overflows
+        history[index] += bonus - history[index] * bonus / MAX_HISTORY;
+    }
+
+    /**
+     * Lowers the history of a quiet move that was searched before the move
+     * that caused a cutoff, and so failed to cause one itself.
+     */
+    void recordFailure(ChessGame.TeamColor side, int move, int depth) {
+        int index = historyIndex(side, move);
+        int malus = Math.min(depth * depth, MAX_HISTORY);
+        history[index] -= malus + history[index] * malus / MAX_HISTORY;
+    }
+
+    /**
+     * Static exchange evaluation: the material the side making a capture
+     * wins or loses if both sides keep recapturing on the target square with
+     * their least valuable piece, each stopping when continuing would lose.
+     * Sliding pieces lined up behind an attacker join in once it has moved.
+     *
+     * @return the expected gain in centipawns; negative for a losing capture
+     */
+    int see(ChessBoard board, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece attacker = board.getPiece(from);
+        ChessPiece victim = board.getPiece(to);
+        long occupied = board.occupied() & ~Bitboards.bit(from);
+        ChessGame.TeamColor side = opponent(attacker.getTeamColor());
+        int onSquare = SEE_VALUES[attacker.getPieceType().ordinal()];
+        gains[0] = victim == null ? 0 : SEE_VALUES[victim.getPieceType().ordinal()];
+        int depth = 0;
+        while (depth + 1 < gains.length) {
+            long attackers = board.attackers(to, side, occupied) & occupied;
+            if (attackers == 0) {
+                break;
+            }
+            ChessPiece.PieceType cheapest = null;
+            long square = 0;
+            for (ChessPiece.PieceType type : CHEAPEST_FIRST) {
+                long candidates = attackers & board.pieces(side, type);
+                if (candidates != 0) {
+                    cheapest = type;
+                    square = candidates & -candidates;
+                    break;
+                }
+            }
+            if (cheapest == ChessPiece.PieceType.KING
+                    && (board.attackers(to, opponent(side), occupied) & occupied) != 0) {
+                // the king may not recapture onto a defended square
+                break;
+            }
+            depth++;
+            gains[depth] = onSquare - gains[depth - 1];
+            if (Math.max(-gains[depth - 1], gains[depth]) < 0) {
+                // neither capturing nor standing pat can change the outcome
+                break;
+            }
+            occupied &= ~square;
+            onSquare = SEE_VALUES[cheapest.ordinal()];
+            side = opponent(side);
+        }
+        for (; depth > 0; depth--) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+        }
+        return gains[0];
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor side) {
+        return side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    private static int historyIndex(ChessGame.TeamColor side, int move) {
+        return (side.ordinal() << 12) | (Move.from(move) << 6) | Move.to(move);
+    }
+}
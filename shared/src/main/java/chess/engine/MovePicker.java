@@ -0,0 +1,275 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+/**
+ * Hands out the legal moves of one position best-first, in stages, so that
+ * a node which is cut off after its first few moves never pays for ordering
+ * the rest:
+ * <ol>
+ * <li>the previous iteration's principal variation move, then the
+ * transposition table's move;</li>
+ * <li>captures and promotions that do not lose material by static exchange,
+ * most valuable victim first, least valuable attacker breaking ties;</li>
+ * <li>the ply's two killer moves;</li>
+ * <li>the remaining quiet moves, by history score;</li>
+ * <li>captures that lose material by static exchange.</li>
+ * </ol>
+ * Each stage orders its moves by selection, one pick at a time. A move is
+ * handed out once even if it qualifies for several stages. In tactical mode,
+ * for the quiescence search, only the second stage is played.
+ * <p>
+ * The search keeps one picker per ply, reused for every node at that ply,
+ * so picking never allocates.
+ */
+final class MovePicker {
+    private static final int PV = 0;
+    private static final int HASH = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int KILLERS = 3;
+    private static final int QUIETS = 4;
+    private static final int BAD_CAPTURES = 5;
+    private static final int DONE = 6;
+
+    private final MoveOrdering ordering;
+    private final MoveList moves;
+    private final int[] scores;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor side;
+    private int ply;
+    private boolean tacticalOnly;
+    private int pvMove;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+
+    private int stage;
+    private int current;
+    private int tacticalEnd;
+    private int badCount;
+    private int killerSlot;
+
+    /**
+     * @param capacity the most legal moves a position can have
+     */
+    MovePicker(MoveOrdering ordering, int capacity) {
+        this.ordering = ordering;
+        moves = new MoveList(capacity);
+        scores = new int[capacity];
+    }
+
+    /**
+     * Generates the position's legal moves and starts over from the first
+     * stage.
+     *
+     * @param pvMove       the move to try first, or {@link Move#NONE}
+     * @param hashMove     the move to try next, or {@link Move#NONE}
+     * @param tacticalOnly whether to hand out only captures and promotions
+     *                     that do not lose material
+     */
+    void reset(ChessBoard board, ChessGame.TeamColor side, int ply, int pvMove, int hashMove, boolean tacticalOnly) {
+        this.board = board;
+        this.side = side;
+        this.ply = ply;
+        this.tacticalOnly = tacticalOnly;
+        this.pvMove = pvMove;
+        this.hashMove = hashMove;
+        firstKiller = Move.NONE;
+        secondKiller = Move.NONE;
+        killerSlot = 0;
+        moves.clear();
+        MoveGenerator.legalMoves(board, side, moves);
+        if (tacticalOnly) {
+            this.pvMove = Move.NONE;
+            this.hashMove = Move.NONE;
+            stage = HASH;
+            nextStage();
+        } else {
+            stage = PV;
+        }
+    }
+
+    /**
+     * @return the number of legal moves, whatever the mode
+     */
+    int size() {
+        return moves.size();
+    }
+
+    boolean contains(int move) {
+        return moves.contains(move);
+    }
+
+    /**
+     * @return the next move to search, or {@link Move#NONE} when there are
+     * no more
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case PV -> {
+                    nextStage();
+                    if (pvMove != Move.NONE && moves.contains(pvMove)) {
+                        return pvMove;
+                    }
+                    pvMove = Move.NONE;
+                }
+                case HASH -> {
+                    nextStage();
+                    if (hashMove != Move.NONE && hashMove != pvMove && moves.contains(hashMove)) {
+                        return hashMove;
+                    }
+                    hashMove = Move.NONE;
+                }
+                case GOOD_CAPTURES -> {
+                    while (current < tacticalEnd) {
+                        int move = pick(current, tacticalEnd);
+                        if (isPlayed(move)) {
+                            current++;
+                        } else if (!Move.isPromotion(move) && loses(move)) {
+                            // park it after the bad captures found so far; every slot before current is used up
+                            moves.swap(current++, badCount++);
+                        } else {
+                            current++;
+                            return move;
+                        }
+                    }
+                    nextStage();
+                }
+                case KILLERS -> {
+                    while (killerSlot < 2) {
+                        int killer = ordering.killer(ply, killerSlot++);
+                        if (killer != Move.NONE && !isPlayed(killer) && !isTactical(board, killer)
+                                && moves.contains(killer)) {
+                            if (firstKiller == Move.NONE) {
+                                firstKiller = killer;
+                            } else {
+                                secondKiller = killer;
+                            }
+                            return killer;
+                        }
+                    }
+                    nextStage();
+                }
+                case QUIETS -> {
+                    while (current < moves.size()) {
+                        int move = pick(current++, moves.size());
+                        if (!isPlayed(move)) {
+                            return move;
+                        }
+                    }
+                    nextStage();
+                }
+                case BAD_CAPTURES -> {
+                    if (current < badCount) {
+                        return moves.get(current++);
+                    }
+                    nextStage();
+                }
+                default -> {
+                    return Move.NONE;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true for captures and promotions
+     */
+    static boolean isTactical(ChessBoard board, int move) {
+        return Move.isPromotion(move) || board.getPiece(Move.to(move)) != null;
+    }
+
+    /**
+     * Moves on to the next stage, preparing the moves it picks from.
+     */
+    private void nextStage() {
+        stage++;
+        switch (stage) {
+            case GOOD_CAPTURES -> {
+                tacticalEnd = 0;
+                for (int i = 0; i < moves.size(); i++) {
+                    int move = moves.get(i);
+                    if (isTactical(board, move)) {
+                        moves.swap(i, tacticalEnd);
+                        scores[tacticalEnd++] = mvvLva(move);
+                    }
+                }
+                current = 0;
+                badCount = 0;
+            }
+            case KILLERS -> {
+                if (tacticalOnly) {
+                    stage = DONE;
+                }
+            }
+            case QUIETS -> {
+                for (int i = tacticalEnd; i < moves.size(); i++) {
+                    scores[i] = ordering.history(side, moves.get(i));
+                }
+                current = tacticalEnd;
+            }
+            case BAD_CAPTURES -> current = 0;
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Selection sort one step at a time: moves the best-scored move of
+     * {@code [from, to)} to {@code from}.
+     */
+    private int pick(int from, int to) {
+        int best = from;
+        for (int i = from + 1; i < to; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != from) {
+            moves.swap(from, best);
+            int score = scores[from];
+            scores[from] = scores[best];
+            scores[best] = score;
+        }
+        return moves.get(from);
+    }
+
+    /**
+     * @return true if the move was already handed out by an earlier stage
+     */
+    private boolean isPlayed(int move) {
+        return move == pvMove || move == hashMove || move == firstKiller || move == secondKiller;
+    }
+
+    /**
+     * Only a capture by a more valuable piece can lose material, so the
+     * exchange is evaluated for those alone.
+     */
+    private boolean loses(int move) {
+        ChessPiece victim = board.getPiece(Move.to(move));
+        ChessPiece attacker = board.getPiece(Move.from(move));
+        int victimValue = victim == null ? 0 : Evaluator.value(victim.getPieceType());
+        return Evaluator.value(attacker.getPieceType()) > victimValue && ordering.see(board, move) < 0;
+    }
+
+    private int mvvLva(int move) {
+        ChessPiece victim = board.getPiece(Move.to(move));
+        int score = 0;
+        if (victim != null) {
+            score += 10 * Evaluator.value(victim.getPieceType())
+                    - Evaluator.value(board.getPiece(Move.from(move)).getPieceType()) / 10;
+        }
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            score += Evaluator.value(promotion);
+        }
+        return score;
+    }
+}
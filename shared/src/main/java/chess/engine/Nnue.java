@@ -0,0 +1,255 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A small quantized neural network evaluation in the NNUE style.
+ * <p>
+ * The input layer has one feature per (piece, square) pair, seen from each
+ * side's point of view: pieces are "ours" or "theirs" and black's board is
+ * flipped, so both sides read the position the same way. The first layer
+ * sums the weight rows of the pieces on the board into a 16-bit
+ * {@link Accumulator} per side. A move changes only two or three features,
+ * so the accumulators are updated by adding and subtracting those rows
+ * instead of being recomputed. The output layer clips both accumulators to
+ * {@code [0, }{@value #QA}{@code ]}, side to move first, and takes their dot
+ * product with the output weights in 32-bit arithmetic.
+ * <p>
+ * Network file, little-endian:
+ * <pre>
+ * int magic, int version, int hidden size
+ * short[768 * hidden] feature weights, row per feature
+ * short[hidden] feature biases
+ * short[2 * hidden] output weights, side to move first
+ * int output bias
+ * </pre>
+ * A network is immutable and can be shared by any number of searches; each
+ * keeps its own accumulators.
+ */
+public final class Nnue {
+    /** Number of input features: 2 relative colors, 6 piece types, 64 squares. */
+    public static final int INPUTS = 768;
+
+    static final int MAGIC = 0x45554E4E;
+    static final int VERSION = 1;
+    /** Accumulator values are clipped to {@code [0, QA]} before the output layer. */
+    static final int QA = 255;
+    /** Output weights are scaled by this much. */
+    static final int QB = 64;
+    /** The output is scaled to centipawns by {@code SCALE / (QA * QB)}. */
+    static final int SCALE = 400;
+
+    private final int hidden;
+    private final short[] featureWeights;
+    private final short[] featureBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+
+    /**
+     * @param featureWeights {@code INPUTS * hidden} first-layer weights, one
+     *                       row of {@code hidden} per feature
+     * @param featureBiases  {@code hidden} first-layer biases
+     * @param outputWeights  {@code 2 * hidden} output weights, those for the
+     *                       side to move first
+     */
+    public Nnue(int hidden, short[] featureWeights, short[] featureBiases, short[] outputWeights, int outputBias) {
+        if (hidden < 1 || featureWeights.length != INPUTS * hidden || featureBiases.length != hidden
+                || outputWeights.length != 2 * hidden) {
+            throw new IllegalArgumentException("Network weights do not match a hidden layer of " + hidden);
+        }
+        this.hidden = hidden;
+        this.featureWeights = featureWeights.clone();
+        this.featureBiases = featureBiases.clone();
+        this.outputWeights = outputWeights.clone();
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the file is not a network this
+     *                                  version understands
+     */
+    public static Nnue load(Path path) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < 12 || in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a network file: " + path);
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported network version " + version + ": " + path);
+        }
+        int hidden = in.getInt();
+        if (hidden < 1 || in.remaining() != fileSize(hidden) - 12) {
+            throw new IllegalArgumentException("Network file is truncated or corrupt: " + path);
+        }
+        short[] featureWeights = new short[INPUTS * hidden];
+        short[] featureBiases = new short[hidden];
+        short[] outputWeights = new short[2 * hidden];
+        in.asShortBuffer().get(featureWeights).get(featureBiases).get(outputWeights);
+        in.position(in.limit() - Integer.BYTES);
+        return new Nnue(hidden, featureWeights, featureBiases, outputWeights, in.getInt());
+    }
+
+    public void write(Path path) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(fileSize(hidden)).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(hidden);
+        out.asShortBuffer().put(featureWeights).put(featureBiases).put(outputWeights);
+        out.position(out.limit() - Integer.BYTES);
+        out.putInt(outputBias);
+        Files.write(path, out.array());
+    }
+
+    /**
+     * A network with small random weights: it plays no better than chance,
+     * but costs the same as a trained one, for tests and benchmarks.
+     */
+    public static Nnue random(int hidden, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        short[] featureWeights = new short[INPUTS * hidden];
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) random.nextInt(-8, 9);
+        }
+        short[] featureBiases = new short[hidden];
+        for (int i = 0; i < hidden; i++) {
+            featureBiases[i] = (short) random.nextInt(0, 64);
+        }
+        short[] outputWeights = new short[2 * hidden];
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) random.nextInt(-QB, QB + 1);
+        }
+        return new Nnue(hidden, featureWeights, featureBiases, outputWeights, 0);
+    }
+
+    public int hiddenSize() {
+        return hidden;
+    }
+
+    public Accumulator newAccumulator() {
+        return new Accumulator();
+    }
+
+    /**
+     * @return the score of the accumulated position for {@code side}, in
+     * centipawns, positive when it is ahead
+     */
+    public int evaluate(Accumulator accumulator, ChessGame.TeamColor side) {
+        short[] us = accumulator.values[side.ordinal()];
+        short[] them = accumulator.values[1 - side.ordinal()];
+        int sum = outputBias;
+        for (int i = 0; i < hidden; i++) {
+            sum += clip(us[i]) * outputWeights[i] + clip(them[i]) * outputWeights[hidden + i];
+        }
+        return (int) ((long) sum * SCALE / (QA * QB));
+    }
+
+    /**
+     * Evaluates a board from scratch, through a fresh accumulator.
+     */
+    public int evaluate(ChessBoard board, ChessGame.TeamColor side) {
+        Accumulator accumulator = newAccumulator();
+        accumulator.refresh(board);
+        return evaluate(accumulator, side);
+    }
+
+    private static int clip(short value) {
+        return Math.min(Math.max(value, 0), QA);
+    }
+
+    /**
+     * @return the feature of a piece on a square, seen from {@code perspective}
+     */
+    static int feature(int perspective, ChessPiece piece, int square) {
+        int relative = piece.getTeamColor().ordinal() == perspective ? 0 : 1;
+        int relativeSquare = perspective == 0 ? square : square ^ 56;
+        return ((relative * 6 + piece.getPieceType().ordinal()) << 6) + relativeSquare;
+    }
+
+    private static int fileSize(int hidden) {
+        return 12 + 2 * (INPUTS * hidden + hidden + 2 * hidden) + 4;
+    }
+
+    /**
+     * The first layer's output for one position, from white's and from
+     * black's point of view. Searches keep one per ply and derive each from
+     * its parent with {@link #copyFrom} and {@link #applyMove}.
+     */
+    public final class Accumulator {
+        private final short[][] values = new short[2][hidden];
+
+        private Accumulator() {
+        }
+
+        /**
+         * Recomputes both sides from the pieces on the board.
+         */
+        public void refresh(ChessBoard board) {
+            for (short[] side : values) {
+                System.arraycopy(featureBiases, 0, side, 0, hidden);
+            }
+            for (long pieces = board.occupied(); pieces != 0; pieces = Bitboards.dropFirst(pieces)) {
+                int square = Bitboards.first(pieces);
+                add(board.getPiece(square), square);
+            }
+        }
+
+        public void copyFrom(Accumulator other) {
+            System.arraycopy(other.values[0], 0, values[0], 0, hidden);
+            System.arraycopy(other.values[1], 0, values[1], 0, hidden);
+        }
+
+        /**
+         * Updates for a move, from the accumulator of the position before it.
+         *
+         * @param moved    the piece that stood on the start square
+         * @param captured the piece that stood on the end square, or null
+         */
+        public void applyMove(int move, ChessPiece moved, ChessPiece captured) {
+            int from = Move.from(move);
+            int to = Move.to(move);
+            ChessPiece.PieceType promotion = Move.promotion(move);
+            remove(moved, from);
+            if (captured != null) {
+                remove(captured, to);
+            }
+            add(promotion == null ? moved : ChessPiece.of(moved.getTeamColor(), promotion), to);
+        }
+
+        public void add(ChessPiece piece, int square) {
+            for (int perspective = 0; perspective < 2; perspective++) {
+                short[] side = values[perspective];
+                int row = feature(perspective, piece, square) * hidden;
+                for (int i = 0; i < hidden; i++) {
+                    side[i] += featureWeights[row + i];
+                }
+            }
+        }
+
+        public void remove(ChessPiece piece, int square) {
+            for (int perspective = 0; perspective < 2; perspective++) {
+                short[] side = values[perspective];
+                int row = feature(perspective, piece, square) * hidden;
+                for (int i = 0; i < hidden; i++) {
+                    side[i] -= featureWeights[row + i];
+                }
+            }
+        }
+
+        /**
+         * @return true if both accumulators hold the same values
+         */
+        boolean sameAs(Accumulator other) {
+            return Arrays.equals(values[0], other.values[0]) && Arrays.equals(values[1], other.values[1]);
+        }
+    }
+}
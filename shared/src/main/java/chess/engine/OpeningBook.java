@@ -0,0 +1,151 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A read-only opening book, looked up in place in a memory-mapped file.
+ * <p>
+ * The file is a 16-byte header followed by 12-byte entries sorted by
+ * position key, all big-endian:
+ * <pre>
+ * header: int magic, int version, int entry count, int reserved
+ * entry:  long {@link ChessGame#positionKey()}, short move ({@link Move} encoding),
+ *         short weight (unsigned)
+ * </pre>
+ * Entries for the same position are adjacent, heaviest first. A lookup is a
+ * binary search over the mapped file, so opening a book costs no parsing and
+ * the operating system pages in only the parts that are read. Books are
+ * written by {@link OpeningBookBuilder}. Lookups are safe from any number of
+ * threads.
+ */
+public final class OpeningBook {
+    static final int MAGIC = 0x43424F4B;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 12;
+
+    /**
+     * A book move and how often it was played from its position.
+     */
+    public record Entry(ChessMove move, int weight) {
+    }
+
+    private final ByteBuffer buffer;
+    private final int size;
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a book this
+     *                                  version understands
+     */
+    OpeningBook(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an opening book");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported opening book version " + buffer.getInt(4));
+        }
+        size = buffer.getInt(8);
+        if (size < 0 || (long) HEADER_SIZE + (long) size * ENTRY_SIZE != buffer.capacity()) {
+            throw new IllegalArgumentException("Opening book is truncated or corrupt");
+        }
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps a book file; the mapping stays valid after the file is closed.
+     *
+     * @throws IllegalArgumentException if the file is not a book this
+     *                                  version understands
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return the number of entries, one per position and move
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the book moves for the game's current position, heaviest
+     * first, or an empty list if the position is not in the book
+     */
+    public List<Entry> moves(ChessGame game) {
+        long key = game.positionKey();
+        List<Entry> moves = new ArrayList<>();
+        for (int i = firstIndex(key); i < size && keyAt(i) == key; i++) {
+            moves.add(new Entry(Move.toChessMove(moveAt(i)), weightAt(i)));
+        }
+        return moves;
+    }
+
+    /**
+     * Picks a book move at random, each in proportion to its weight.
+     *
+     * @return the move, or null if the position is not in the book
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        long key = game.positionKey();
+        int first = firstIndex(key);
+        long total = 0;
+        int end = first;
+        for (; end < size && keyAt(end) == key; end++) {
+            total += weightAt(end);
+        }
+        if (end == first) {
+            return null;
+        }
+        long target = random.nextLong(total);
+        for (int i = first; i < end; i++) {
+            target -= weightAt(i);
+            if (target < 0) {
+                return Move.toChessMove(moveAt(i));
+            }
+        }
+        return Move.toChessMove(moveAt(end - 1));
+    }
+
+    /**
+     * @return the index of the first entry whose key is not below {@code key}
+     */
+    private int firstIndex(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return buffer.getLong(HEADER_SIZE + index * ENTRY_SIZE);
+    }
+
+    private int moveAt(int index) {
+        return buffer.getShort(HEADER_SIZE + index * ENTRY_SIZE + 8) & 0xFFFF;
+    }
+
+    private int weightAt(int index) {
+        return buffer.getShort(HEADER_SIZE + index * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+}
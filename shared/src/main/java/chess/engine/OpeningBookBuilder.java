@@ -0,0 +1,145 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects games into an {@link OpeningBook} file.
+ * <p>
+ * Every game is replayed through {@link ChessGame#makeMove(ChessMove)}, so
+ * only legal moves reach the book. Each position within the first
+ * {@code maxPly} plies records the move played from it, and a move's weight
+ * is the number of games that played it, capped at 65535.
+ * <p>
+ * From the command line, with one game per line in coordinate notation
+ * ({@code e2e4 e7e5 g1f3 ...}) and {@code #} starting a comment line:
+ * <pre>
+ * mvn -pl shared exec:java -Dexec.mainClass=chess.engine.OpeningBookBuilder -Dexec.args="games.txt book.bin 16"
+ * </pre>
+ */
+public final class OpeningBookBuilder {
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPly;
+    private final Map<Long, Map<Integer, Integer>> counts = new HashMap<>();
+
+    /**
+     * @param maxPly how many plies of each game to record
+     */
+    public OpeningBookBuilder(int maxPly) {
+        if (maxPly < 1) {
+            throw new IllegalArgumentException("An opening book needs at least one ply");
+        }
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Adds a game played from the start position.
+     *
+     * @throws InvalidMoveException if a move is illegal; nothing of the game
+     *                              is added then
+     */
+    public OpeningBookBuilder addGame(List<ChessMove> moves) throws InvalidMoveException {
+        return addGame(new ChessGame(), moves);
+    }
+
+    /**
+     * Adds a game played from {@code game}'s current position, playing the
+     * moves on it.
+     *
+     * @throws InvalidMoveException if a move is illegal; nothing of the game
+     *                              is added then
+     */
+    public OpeningBookBuilder addGame(ChessGame game, List<ChessMove> moves) throws InvalidMoveException {
+        int plies = Math.min(maxPly, moves.size());
+        long[] keys = new long[plies];
+        for (int ply = 0; ply < plies; ply++) {
+            keys[ply] = game.positionKey();
+            game.makeMove(moves.get(ply));
+        }
+        for (int ply = 0; ply < plies; ply++) {
+            counts.computeIfAbsent(keys[ply], key -> new HashMap<>())
+                    .merge(Move.of(moves.get(ply)), 1, Integer::sum);
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of distinct positions collected so far
+     */
+    public int positions() {
+        return counts.size();
+    }
+
+    /**
+     * Writes the collected positions as a book file, replacing any file
+     * already at {@code path}.
+     */
+    public void write(Path path) throws IOException {
+        List<long[]> entries = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, Integer>> position : counts.entrySet()) {
+            for (Map.Entry<Integer, Integer> move : position.getValue().entrySet()) {
+                entries.add(new long[]{position.getKey(), move.getKey(), Math.min(move.getValue(), MAX_WEIGHT)});
+            }
+        }
+        entries.sort(Comparator.<long[]>comparingLong(entry -> entry[0])
+                .thenComparingLong(entry -> -entry[2])
+                .thenComparingLong(entry -> entry[1]));
+
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_SIZE + entries.size() * OpeningBook.ENTRY_SIZE);
+        buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putInt(entries.size()).putInt(0);
+        for (long[] entry : entries) {
+            buffer.putLong(entry[0]).putShort((short) entry[1]).putShort((short) entry[2]);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: OpeningBookBuilder <games> <book> [<maxPly>]");
+            return;
+        }
+        OpeningBookBuilder builder = new OpeningBookBuilder(args.length > 2 ? Integer.parseInt(args[2]) : 16);
+        int games = 0;
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(Path.of(args[0]))) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                List<ChessMove> moves = new ArrayList<>();
+                for (String text : line.split("\\s+")) {
+                    moves.add(Move.toChessMove(Move.parse(text)));
+                }
+                builder.addGame(moves);
+                games++;
+            } catch (InvalidMoveException | IllegalArgumentException e) {
+                System.out.println("Skipping line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        builder.write(Path.of(args[1]));
+        System.out.println(games + " games, " + builder.positions() + " positions written to " + args[1]);
+    }
+}
@@ -0,0 +1,158 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+/**
+ * Lazy SMP: several {@link Engine}s search the same root position at once,
+ * sharing one {@link TranspositionTable}.
+ * <p>
+ * The threads do not split the tree between them. Each runs a complete
+ * iterative-deepening search, and they speed each other up through the
+ * table: a helper that has already searched a position leaves its score and
+ * best move for the others. Every other helper searches one ply deeper than
+ * the main thread so the threads drift apart instead of visiting the same
+ * nodes in the same order.
+ * <p>
+ * The calling thread runs the main search and reports its iterations; the
+ * helpers run on their own threads and are stopped as soon as the main
+ * search ends. The result is the deepest completed iteration of any thread,
+ * preferring the main thread's, with node counts summed over all threads.
+ * A node limit is shared out evenly between the threads.
+ */
+public final class ParallelEngine {
+    private final TranspositionTable table;
+    private final Engine[] workers;
+
+    /**
+     * @param threads number of searching threads, including the caller's
+     */
+    public ParallelEngine(int threads) {
+        this(threads, new TranspositionTable(Engine.DEFAULT_HASH_MB));
+    }
+
+    /**
+     * @param threads number of searching threads, including the caller's
+     * @param table   the transposition table all threads share
+     */
+    public ParallelEngine(int threads, TranspositionTable table) {
+        this(threads, table, null);
+    }
+
+    /**
+     * @param threads number of searching threads, including the caller's
+     * @param table   the transposition table all threads share
+     * @param network the network every thread evaluates with, or null for
+     *                the piece-square evaluation
+     */
+    public ParallelEngine(int threads, TranspositionTable table, Nnue network) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread");
+        }
+        this.table = table;
+        workers = new Engine[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Engine(table, network);
+        }
+    }
+
+    public int threads() {
+        return workers.length;
+    }
+
+    /**
+     * Searches the game's current position for the side to move.
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, result -> {
+        });
+    }
+
+    /**
+     * Searches the game's current position for the side to move, reporting
+     * each iteration the main thread completes to {@code onIteration}, with
+     * the nodes of all threads so far. The game is not modified.
+     *
+     * @return the deepest completed iteration of any thread
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        long start = System.nanoTime();
+        table.newSearch();
+        SearchLimits workerLimits = limits.nodes() == 0 ? limits
+                : limits.withNodes(Math.max(1, limits.nodes() / workers.length));
+        for (Engine worker : workers) {
+            worker.prepare(game, workerLimits, start);
+        }
+
+        List<FutureTask<SearchResult>> helpers = new ArrayList<>();
+        for (int i = 1; i < workers.length; i++) {
+            Engine helper = workers[i];
+            int depthOffset = i % 2;
+            FutureTask<SearchResult> task = new FutureTask<>(() -> helper.iterate(depthOffset, result -> {
+            }));
+            helpers.add(task);
+            Thread.ofPlatform().daemon().name("search-" + i).start(task);
+        }
+
+        SearchResult best;
+        try {
+            best = workers[0].iterate(0, iteration -> onIteration.accept(withNodes(iteration, totalNodes(), start)));
+        } finally {
+            cancel();
+        }
+        for (FutureTask<SearchResult> helper : helpers) {
+            SearchResult result = join(helper);
+            if (result.depth() > best.depth()) {
+                best = result;
+            }
+        }
+        return withNodes(best, totalNodes(), start);
+    }
+
+    /**
+     * Stops every thread of the search in progress as soon as possible.
+     */
+    public void cancel() {
+        for (Engine worker : workers) {
+            worker.cancel();
+        }
+    }
+
+    private long totalNodes() {
+        long total = 0;
+        for (Engine worker : workers) {
+            total += worker.nodes();
+        }
+        return total;
+    }
+
+    private static SearchResult withNodes(SearchResult result, long nodes, long start) {
+        return new SearchResult(result.bestMove(), result.score(), result.principalVariation(),
+                result.depth(), nodes, System.nanoTime() - start);
+    }
+
+    private static SearchResult join(FutureTask<SearchResult> helper) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return helper.get();
+                } catch (InterruptedException e) {
+                    // the helper is already cancelled and finishes shortly
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search thread failed", e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
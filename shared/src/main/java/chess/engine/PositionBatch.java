@@ -0,0 +1,135 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+import java.util.Arrays;
+
+/**
+ * Many independent positions packed for {@link BatchEvaluator}.
+ * <p>
+ * Each position is 64 one-byte piece codes, 0 for an empty square and
+ * {@code color * 6 + type + 1} otherwise, plus the side to move. The codes
+ * are stored square-major: all positions' codes for a1, then all for b1, and
+ * so on, so one square of consecutive positions is one contiguous run of
+ * bytes that a vector loads in one go. The capacity is rounded up to a whole
+ * number of {@value #BLOCK}-position blocks; the unused positions at the end
+ * are empty boards, which evaluate to 0 and are never reported.
+ * <p>
+ * A batch is filled once and can then be evaluated any number of times, and
+ * refilled after {@link #clear()}. It is not safe for concurrent use.
+ */
+public final class PositionBatch {
+    /**
+     * Capacities are a multiple of this, which is a multiple of the lane count
+     * of any vector of shorts up to 512 bits (32 lanes). Wider vectors would
+     * need a larger block.
+     */
+    static final int BLOCK = 64;
+    /** Number of piece codes, including 0 for an empty square. */
+    static final int CODES = 13;
+
+    /**
+     * {@code SCORES[square][code]}: the {@link PieceSquareTables} score of the
+     * piece with that code on that square, 0 for no piece. Each row is padded
+     * to 16 entries so it fits one 16-lane lookup table.
+     */
+    static final short[][] SCORES = new short[64][16];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            for (int code = 1; code < CODES; code++) {
+                SCORES[square][code] = (short) PieceSquareTables.score(code - 1, square);
+            }
+        }
+    }
+
+    private final int capacity;
+    private final byte[] squares;
+    private final byte[] blackToMove;
+    private int size;
+
+    /**
+     * @param capacity the most positions the batch holds
+     */
+    public PositionBatch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A batch needs room for at least one position");
+        }
+        this.capacity = Math.ceilDiv(capacity, BLOCK) * BLOCK;
+        squares = new byte[64 * this.capacity];
+        blackToMove = new byte[this.capacity];
+    }
+
+    /**
+     * Adds the game's current position, to be scored for the side to move.
+     *
+     * @return the position's index in the batch
+     */
+    public int add(ChessGame game) {
+        return add(game.getBoard(), game.getTeamTurn());
+    }
+
+    /**
+     * Adds a position, to be scored for {@code side}.
+     *
+     * @return the position's index in the batch
+     * @throws IllegalStateException if the batch is full
+     */
+    public int add(ChessBoard board, ChessGame.TeamColor side) {
+        if (size == capacity) {
+            throw new IllegalStateException("Position batch is full at " + capacity + " positions");
+        }
+        int index = size++;
+        for (int square = 0; square < 64; square++) {
+            squares[square * capacity + index] = code(board.getPiece(square));
+        }
+        blackToMove[index] = (byte) (side == ChessGame.TeamColor.BLACK ? 1 : 0);
+        return index;
+    }
+
+    /**
+     * Empties the batch for refilling, resetting every position to an empty
+     * board.
+     */
+    public void clear() {
+        Arrays.fill(squares, (byte) 0);
+        Arrays.fill(blackToMove, (byte) 0);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of positions the batch can hold, rounded up to a
+     * whole block
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the piece codes, square-major: {@code [square * capacity() + position]}
+     */
+    byte[] squares() {
+        return squares;
+    }
+
+    /**
+     * @return 1 for each position scored for black, 0 for white
+     */
+    byte[] blackToMove() {
+        return blackToMove;
+    }
+
+    private static byte code(ChessPiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        return (byte) (piece.getTeamColor().ordinal() * 6 + piece.getPieceType().ordinal() + 1);
+    }
+}
@@ -0,0 +1,36 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * The portable {@link BatchEvaluator}: a table lookup per square of each
+ * position. It walks the batch square by square, like the vector evaluator,
+ * so both read memory in the same order.
+ */
+final class ScalarBatchEvaluator implements BatchEvaluator {
+    static final ScalarBatchEvaluator INSTANCE = new ScalarBatchEvaluator();
+
+    private ScalarBatchEvaluator() {
+    }
+
+    @Override
+    public void evaluate(PositionBatch batch, int[] scores) {
+        int size = batch.size();
+        int capacity = batch.capacity();
+        byte[] squares = batch.squares();
+        byte[] blackToMove = batch.blackToMove();
+        Arrays.fill(scores, 0, size, 0);
+        for (int square = 0; square < 64; square++) {
+            short[] table = PositionBatch.SCORES[square];
+            int offset = square * capacity;
+            for (int position = 0; position < size; position++) {
+                scores[position] += table[squares[offset + position]];
+            }
+        }
+        for (int position = 0; position < size; position++) {
+            if (blackToMove[position] != 0) {
+                scores[position] = -scores[position];
+            }
+        }
+    }
+}
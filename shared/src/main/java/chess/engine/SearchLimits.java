@@ -0,0 +1,52 @@
+package chess.engine;
+
+import java.time.Duration;
+
+/**
+ * When a search should stop. Each limit is off when zero; the search stops at
+ * whichever enabled limit it reaches first, or when it is cancelled.
+ *
+ * @param depth      deepest iteration to complete, in plies
+ * @param nodes      most nodes to visit
+ * @param timeMillis most wall-clock time to spend, in milliseconds
+ */
+public record SearchLimits(int depth, long nodes, long timeMillis) {
+
+    public SearchLimits {
+        if (depth < 0 || nodes < 0 || timeMillis < 0) {
+            throw new IllegalArgumentException("Search limits must not be negative");
+        }
+    }
+
+    /**
+     * @return limits that never stop the search by themselves; it runs until
+     * cancelled or until the engine's maximum depth
+     */
+    public static SearchLimits infinite() {
+        return new SearchLimits(0, 0, 0);
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+
+    public static SearchLimits time(Duration time) {
+        return new SearchLimits(0, 0, time.toMillis());
+    }
+
+    public SearchLimits withDepth(int depth) {
+        return new SearchLimits(depth, nodes, timeMillis);
+    }
+
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(depth, nodes, timeMillis);
+    }
+
+    public SearchLimits withTime(Duration time) {
+        return new SearchLimits(depth, nodes, time.toMillis());
+    }
+}
@@ -0,0 +1,53 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a search, or of one completed iteration of it.
+ *
+ * @param bestMove          the move to play, or null if the side to move has
+ *                          no legal move
+ * @param score             centipawns from the point of view of the side to
+ *                          move; mates are scored near {@link Engine#MATE}
+ * @param principalVariation the expected line of play, starting with
+ *                          {@code bestMove}
+ * @param depth             the deepest completed iteration
+ * @param nodes             positions visited, including quiescence
+ * @param elapsedNanos      wall-clock time spent searching
+ */
+public record SearchResult(ChessMove bestMove, int score, List<ChessMove> principalVariation,
+                           int depth, long nodes, long elapsedNanos) {
+
+    public SearchResult {
+        principalVariation = List.copyOf(principalVariation);
+    }
+
+    /**
+     * @return nodes searched per second
+     */
+    public long nps() {
+        return elapsedNanos <= 0 ? nodes : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * @return true if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Engine.MATE - Engine.MAX_PLY;
+    }
+
+    /**
+     * @return moves until mate, positive if the side to move mates and
+     * negative if it is mated, or 0 if the score is not a mate
+     */
+    public int mateIn() {
+        if (!isMate()) {
+            return 0;
+        }
+        int plies = Engine.MATE - Math.abs(score);
+        int moves = (plies + 1) / 2;
+        return score > 0 ? moves : -moves;
+    }
+}
@@ -0,0 +1,69 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how {@link ParallelEngine} scales with its thread count: each
+ * position of a fixed suite is searched to the same depth with a freshly
+ * cleared table, and the total time to depth is compared with one thread.
+ * <pre>
+ * mvn -pl shared exec:java -Dexec.mainClass=chess.engine.SmpBenchmark -Dexec.args="9"
+ * mvn -pl shared exec:java -Dexec.mainClass=chess.engine.SmpBenchmark -Dexec.args="9 1 2 4 8"
+ * </pre>
+ */
+public final class SmpBenchmark {
+    private static final List<String> POSITIONS = List.of(
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w",
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w",
+            "r2q1rk1/ppp2ppp/2npbn2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQ1RK1 w",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w");
+    private static final int HASH_MB = 64;
+
+    private SmpBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: SmpBenchmark <depth> [<threads>...]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            threadCounts.add(Integer.parseInt(args[i]));
+        }
+        if (threadCounts.isEmpty()) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int threads = 1; threads < cores; threads *= 2) {
+                threadCounts.add(threads);
+            }
+            threadCounts.add(cores);
+        }
+
+        TranspositionTable table = new TranspositionTable(HASH_MB);
+        long baseline = 0;
+        System.out.printf("%7s %10s %12s %12s %8s%n", "threads", "time ms", "nodes", "nps", "speedup");
+        for (int threads : threadCounts) {
+            ParallelEngine engine = new ParallelEngine(threads, table);
+            long elapsed = 0;
+            long nodes = 0;
+            for (String fen : POSITIONS) {
+                table.clear();
+                SearchResult result = engine.search(ChessGame.fromFen(fen), SearchLimits.depth(depth));
+                elapsed += result.elapsedNanos();
+                nodes += result.nodes();
+            }
+            if (baseline == 0) {
+                baseline = elapsed;
+            }
+            long millis = Math.max(1, elapsed / 1_000_000);
+            System.out.printf("%7d %10d %12d %12d %8.2f%n",
+                    threads, millis, nodes, nodes * 1000 / millis, (double) baseline / elapsed);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Exact results for small endings, read in place from memory-mapped files
+ * written by {@link TablebaseGenerator}.
+ * <p>
+ * A table file is named after its ending ({@code KQK.tb}) and holds a 16-byte
+ * big-endian header followed by one fixed-width value per {@link Ending}
+ * index, packed least significant bit first:
+ * <pre>
+ * header: int magic, int version, int index count, int bits per value
+ * value:  0 for a draw (or an impossible position), otherwise plies to mate + 1
+ * </pre>
+ * Whether a decided position is a win or a loss follows from the side to
+ * move, since a lone king can never win. Bare kings and a lone minor piece are
+ * known draws without a table. Lookups are safe from any number of threads.
+ */
+public final class Tablebase {
+    /** File name suffix of table files. */
+    public static final String EXTENSION = ".tb";
+
+    static final int MAGIC = 0x43544231;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    /** Bytes after the values, so reading two bytes never runs off the end. */
+    static final int PADDING = 2;
+
+    private static final Set<String> DRAWN = Set.of("KK", "KBK", "KNK");
+
+    public enum Outcome {
+        WIN, DRAW, LOSS
+    }
+
+    /**
+     * A position's exact result for the side to move.
+     *
+     * @param plies half-moves until mate with best play, or 0 for a draw
+     */
+    public record Result(Outcome outcome, int plies) {
+    }
+
+    private record Table(Ending ending, ByteBuffer values, int bits) {
+    }
+
+    private final Map<String, Table> tables;
+
+    private Tablebase(Map<String, Table> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Maps every table file in a directory; the mappings stay valid after the
+     * files are closed. A missing directory gives an empty tablebase.
+     *
+     * @throws IllegalArgumentException if a table file is not one this
+     *                                  version understands
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Map<String, Table> tables = new HashMap<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    Ending ending = Ending.of(name.substring(0, name.length() - EXTENSION.length()));
+                    tables.put(ending.name, map(ending, file));
+                }
+            }
+        }
+        return new Tablebase(tables);
+    }
+
+    /**
+     * @return true if the tablebase has a table for the ending
+     */
+    public boolean contains(String ending) {
+        return tables.containsKey(ending);
+    }
+
+    /**
+     * @return the result of the game's current position, or null if the
+     * tablebase does not cover its material
+     */
+    public Result probe(ChessGame game) {
+        return probe(game.getBoard(), game.getTeamTurn());
+    }
+
+    /**
+     * Finds a move that keeps the best result: the fastest mate when
+     * winning, any move that holds a draw, and the longest resistance when
+     * losing.
+     *
+     * @return the move, or null if the position is not covered or has no
+     * legal move
+     */
+    public ChessMove bestMove(ChessGame game) {
+        ChessGame.TeamColor side = game.getTeamTurn();
+        ChessGame.TeamColor opponent = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        if (probe(game) == null) {
+            return null;
+        }
+        ChessBoard board = new ChessBoard(game.getBoard());
+        ChessMove best = null;
+        int bestRank = Integer.MIN_VALUE;
+        for (ChessMove move : game.legalMoves(side)) {
+            ChessPiece captured = board.applyMove(move);
+            Result reply = probe(board, opponent);
+            board.undoMove(move, captured);
+            if (reply == null) {
+                continue;
+            }
+            int rank = rank(reply);
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    Result probe(ChessBoard board, ChessGame.TeamColor side) {
+        String name = Ending.name(board);
+        if (name == null) {
+            return null;
+        }
+        if (DRAWN.contains(name)) {
+            return new Result(Outcome.DRAW, 0);
+        }
+        Table table = tables.get(name);
+        if (table == null) {
+            return null;
+        }
+        int index = table.ending.index(board, side);
+        long bit = (long) index * table.bits;
+        int word = table.values.getShort(HEADER_SIZE + (int) (bit >>> 3)) & 0xFFFF;
+        int value = (word >>> (bit & 7)) & ((1 << table.bits) - 1);
+        if (value == 0) {
+            return new Result(Outcome.DRAW, 0);
+        }
+        boolean strongToMove = side == Ending.strongSide(board);
+        return new Result(strongToMove ? Outcome.WIN : Outcome.LOSS, value - 1);
+    }
+
+    /**
+     * Orders the mover's options by the reply's result for the opponent:
+     * opponent losses first (quickest first), then draws, then opponent wins
+     * (slowest first).
+     */
+    private static int rank(Result reply) {
+        return switch (reply.outcome()) {
+            case LOSS -> 1000 - reply.plies();
+            case DRAW -> 0;
+            case WIN -> -1000 + reply.plies();
+        };
+    }
+
+    private static Table map(Ending ending, Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a tablebase file: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported tablebase version " + buffer.getInt(4) + ": " + file);
+        }
+        int count = buffer.getInt(8);
+        int bits = buffer.getInt(12);
+        if (count != ending.size || bits < 1 || bits > 8
+                || buffer.capacity() != HEADER_SIZE + dataBytes(count, bits) + PADDING) {
+            throw new IllegalArgumentException("Tablebase file is truncated or corrupt: " + file);
+        }
+        return new Table(ending, buffer.order(ByteOrder.LITTLE_ENDIAN), bits);
+    }
+
+    static int dataBytes(int count, int bits) {
+        return (int) (((long) count * bits + 7) / 8);
+    }
+}
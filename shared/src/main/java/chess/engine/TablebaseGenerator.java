@@ -0,0 +1,354 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Builds {@link Tablebase} files by retrograde analysis.
+ * <p>
+ * A first pass over every index, using the game's own move generator, marks
+ * impossible positions, finds the positions where the lone king is mated,
+ * and counts the lone king's legal moves everywhere else. Then the search
+ * works backwards from the mates one ply at a time. Every unresolved
+ * predecessor of a lost position is won, one ply further from mate. Every
+ * predecessor of a won position loses one of its escapes, and loses once it
+ * has none left. A king move that captures a piece leaves the table for a
+ * drawn ending, so it is never counted off, and those positions stay drawn.
+ * That only holds because every ending in {@link #ENDINGS} is a draw once it
+ * loses a piece, so no other ending can be generated.
+ * Positions still unresolved at the end are draws.
+ * <p>
+ * Predecessors come from un-moving pieces with the same attack tables the
+ * move generator uses; pawns un-push. Pawn promotions leave the table, so
+ * {@code KPK} reads the {@code KQK} and {@code KRK} files and starts those
+ * wins at the distance they give.
+ * <p>
+ * Each pass runs in parallel over the index space. Marking a win only ever
+ * writes the same value, so threads may race on it harmlessly. Counting off
+ * escapes is split by the white king's square instead: a lone king move
+ * leaves the white king where it is, so each thread owns every counter it
+ * touches and no atomic updates are needed.
+ * <pre>
+ * mvn -pl shared exec:java -Dexec.mainClass=chess.engine.TablebaseGenerator -Dexec.args="tablebases"
+ * mvn -pl shared exec:java -Dexec.mainClass=chess.engine.TablebaseGenerator -Dexec.args="tablebases KQK KRK"
+ * </pre>
+ */
+public final class TablebaseGenerator {
+    /** The endings this generator supports, in an order that builds dependencies first. */
+    public static final List<String> ENDINGS = List.of("KQK", "KRK", "KPK", "KBNK");
+
+    private static final int CHUNK = 1 << 14;
+    private static final byte ILLEGAL = (byte) 0xFF;
+
+    private final Ending ending;
+    private final Tablebase promotions;
+    /** 0 while unresolved (and for draws), {@link #ILLEGAL}, or plies to mate + 1. */
+    private final byte[] values;
+    /** With the lone king to move: its legal moves not yet known to lose. */
+    private final byte[] counters;
+    /** With white to move: plies to mate + 1 through the best winning promotion. */
+    private final byte[] promotionWins;
+    private int maxPlies;
+
+    TablebaseGenerator(Ending ending, Tablebase promotions) {
+        this.ending = ending;
+        this.promotions = promotions;
+        values = new byte[ending.size];
+        counters = new byte[ending.size];
+        promotionWins = new byte[ending.size];
+    }
+
+    /**
+     * Generates each ending's table into {@code directory}, replacing existing
+     * files. Endings with pawns need the tables their promotions lead to,
+     * either already in the directory or earlier in {@code endings}.
+     *
+     * @throws IllegalArgumentException if an ending is not in {@link #ENDINGS};
+     *                                  nothing is generated then
+     */
+    public static void generate(Path directory, List<String> endings) throws IOException {
+        requireSupported(endings);
+        Files.createDirectories(directory);
+        for (String name : endings) {
+            generate(directory, name);
+        }
+    }
+
+    private static TablebaseGenerator generate(Path directory, String name) throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(Ending.of(name), Tablebase.open(directory));
+        generator.run();
+        generator.write(directory.resolve(name + Tablebase.EXTENSION));
+        return generator;
+    }
+
+    void run() {
+        parallel(this::initialize);
+        int lastPromotion = 0;
+        for (byte value : promotionWins) {
+            lastPromotion = Math.max(lastPromotion, value & 0xFF);
+        }
+        // losses at ply (white just mated or will), wins one ply further
+        for (int ply = 0; ; ply += 2) {
+            int lossCode = ply + 1;
+            int winCode = ply + 2;
+            AtomicInteger resolved = new AtomicInteger();
+            parallel((from, to) -> resolved.addAndGet(markWins(from, to, lossCode, winCode)));
+            parallelByWhiteKing((from, to) -> resolved.addAndGet(markLosses(from, to, winCode, winCode + 1)));
+            if (resolved.get() == 0 && winCode >= lastPromotion) {
+                break;
+            }
+            if (winCode + 1 > 0xFE) {
+                throw new IllegalStateException("Mate distance out of range in " + ending.name);
+            }
+        }
+        for (byte value : values) {
+            if (value != ILLEGAL) {
+                maxPlies = Math.max(maxPlies, (value & 0xFF) - 1);
+            }
+        }
+    }
+
+    /**
+     * @return the longest distance to mate in the table, in plies
+     */
+    int maxPlies() {
+        return maxPlies;
+    }
+
+    void write(Path path) throws IOException {
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(maxPlies + 1));
+        byte[] data = new byte[Tablebase.dataBytes(values.length, bits) + Tablebase.PADDING];
+        long bit = 0;
+        for (byte value : values) {
+            int code = value == ILLEGAL ? 0 : value & 0xFF;
+            int word = code << (bit & 7);
+            int at = (int) (bit >>> 3);
+            data[at] |= (byte) word;
+            data[at + 1] |= (byte) (word >>> 8);
+            bit += bits;
+        }
+        ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_SIZE)
+                .putInt(Tablebase.MAGIC).putInt(Tablebase.VERSION).putInt(values.length).putInt(bits)
+                .flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(new ByteBuffer[]{header, ByteBuffer.wrap(data)});
+        }
+    }
+
+    private void initialize(int from, int to) {
+        ChessBoard board = new ChessBoard();
+        MoveList moves = new MoveList();
+        int[] squares = new int[ending.pieces.length + 2];
+        for (int index = from; index < to; index++) {
+            int side = ending.decode(index, squares);
+            if (!ending.place(board, squares)) {
+                values[index] = ILLEGAL;
+                continue;
+            }
+            ChessGame.TeamColor mover = side == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            ChessGame.TeamColor waiting = side == 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            if (board.isSquareAttacked(board.kingSquare(waiting), mover)) {
+                values[index] = ILLEGAL;
+            } else {
+                moves.clear();
+                MoveGenerator.legalMoves(board, mover, moves);
+                if (side == 1) {
+                    counters[index] = (byte) moves.size();
+                    if (moves.isEmpty() && board.isSquareAttacked(board.kingSquare(mover), waiting)) {
+                        values[index] = 1;
+                    }
+                } else {
+                    promotionWins[index] = promotionWin(board, moves);
+                }
+            }
+            ending.clear(board, squares);
+        }
+    }
+
+    /**
+     * @return plies to mate + 1 through the fastest promotion to a won
+     * position, or 0 if no promotion wins
+     */
+    private byte promotionWin(ChessBoard board, MoveList moves) {
+        int best = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (!Move.isPromotion(move)) {
+                continue;
+            }
+            ChessPiece captured = board.applyMove(move);
+            Tablebase.Result result = promotions.probe(board, ChessGame.TeamColor.BLACK);
+            String needed = Ending.name(board);
+            board.undoMove(move, captured);
+            if (result == null) {
+                throw new IllegalStateException("Generating " + ending.name + " needs the " + needed + " table");
+            }
+            if (result.outcome() == Tablebase.Outcome.LOSS) {
+                int code = result.plies() + 2;
+                best = best == 0 ? code : Math.min(best, code);
+            }
+        }
+        return (byte) best;
+    }
+
+    /**
+     * White to move wins where it can reach a position lost at this ply, or
+     * where its promotion win becomes due.
+     */
+    private int markWins(int from, int to, int lossCode, int winCode) {
+        int[] squares = new int[ending.pieces.length + 2];
+        int marked = 0;
+        for (int index = from; index < to; index++) {
+            if (ending.decode(index, squares) == 0) {
+                if (values[index] == 0 && (promotionWins[index] & 0xFF) == winCode) {
+                    values[index] = (byte) winCode;
+                    marked++;
+                }
+                continue;
+            }
+            if ((values[index] & 0xFF) != lossCode) {
+                continue;
+            }
+            long occupied = occupied(squares);
+            for (int piece = 0; piece < squares.length; piece++) {
+                if (piece == 1) {
+                    continue;
+                }
+                int square = squares[piece];
+                for (long targets = unmoves(piece, square, occupied); targets != 0; targets = Bitboards.dropFirst(targets)) {
+                    squares[piece] = Bitboards.first(targets);
+                    int predecessor = ending.encode(0, squares);
+                    if (values[predecessor] == 0) {
+                        values[predecessor] = (byte) winCode;
+                        marked++;
+                    }
+                }
+                squares[piece] = square;
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * The lone king to move loses where its last escape leads to a position
+     * won at this ply. The range holds only white-to-move indexes.
+     */
+    private int markLosses(int from, int to, int winCode, int lossCode) {
+        int[] squares = new int[ending.pieces.length + 2];
+        int marked = 0;
+        for (int index = from; index < to; index++) {
+            if ((values[index] & 0xFF) != winCode) {
+                continue;
+            }
+            ending.decode(index, squares);
+            int king = squares[1];
+            long targets = Bitboards.KING_ATTACKS[king] & ~occupied(squares);
+            for (; targets != 0; targets = Bitboards.dropFirst(targets)) {
+                squares[1] = Bitboards.first(targets);
+                int predecessor = ending.encode(1, squares);
+                if (values[predecessor] == 0 && --counters[predecessor] == 0) {
+                    values[predecessor] = (byte) lossCode;
+                    marked++;
+                }
+            }
+            squares[1] = king;
+        }
+        return marked;
+    }
+
+    /**
+     * @return the squares white's piece could have come from without
+     * capturing: where it attacks through empty squares, or a pawn's pushes
+     * in reverse
+     */
+    private long unmoves(int piece, int square, long occupied) {
+        ChessPiece.PieceType type = piece == 0 ? ChessPiece.PieceType.KING : ending.pieces[piece - 2];
+        long targets = switch (type) {
+            case KING -> Bitboards.KING_ATTACKS[square];
+            case KNIGHT -> Bitboards.KNIGHT_ATTACKS[square];
+            case BISHOP -> Bitboards.bishopAttacks(square, occupied);
+            case ROOK -> Bitboards.rookAttacks(square, occupied);
+            case QUEEN -> Bitboards.bishopAttacks(square, occupied) | Bitboards.rookAttacks(square, occupied);
+            case PAWN -> pawnUnpushes(square, occupied);
+        };
+        return targets & ~occupied;
+    }
+
+    private static long pawnUnpushes(int square, long occupied) {
+        int row = square >>> 3;
+        if (row < 2) {
+            return 0;
+        }
+        long targets = Bitboards.bit(square - 8);
+        if (row == 3 && (occupied & Bitboards.bit(square - 8)) == 0) {
+            targets |= Bitboards.bit(square - 16);
+        }
+        return targets;
+    }
+
+    private static long occupied(int[] squares) {
+        long occupied = 0;
+        for (int square : squares) {
+            occupied |= Bitboards.bit(square);
+        }
+        return occupied;
+    }
+
+    private interface Range {
+        void run(int from, int to);
+    }
+
+    private void parallel(Range range) {
+        IntStream.range(0, (ending.size + CHUNK - 1) / CHUNK).parallel()
+                .forEach(chunk -> range.run(chunk * CHUNK, Math.min(ending.size, (chunk + 1) * CHUNK)));
+    }
+
+    /**
+     * Runs over the white-to-move indexes, one range per white king square.
+     */
+    private void parallelByWhiteKing(Range range) {
+        int block = ending.size / 128;
+        IntStream.range(0, 64).parallel().forEach(king -> range.run(king * block, (king + 1) * block));
+    }
+
+    private static void requireSupported(List<String> endings) {
+        for (String name : endings) {
+            if (!ENDINGS.contains(name)) {
+                throw new IllegalArgumentException("Unsupported ending: " + name + ", expected one of " + ENDINGS);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: TablebaseGenerator <directory> [<ending>...]");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        List<String> endings = args.length > 1 ? List.of(args).subList(1, args.length) : ENDINGS;
+        requireSupported(endings);
+        Files.createDirectories(directory);
+        for (String name : endings) {
+            long start = System.nanoTime();
+            TablebaseGenerator generator = generate(directory, name);
+            System.out.printf("%s: %d positions, longest mate %d plies, %d ms%n", name, generator.ending.size,
+                    generator.maxPlies(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results, shared by any number of
+ * searching threads without locks.
+ * <p>
+ * Each entry is two longs in one flat array: the position key XORed with the
+ * data, then the data itself. A probe only accepts an entry whose two words
+ * XOR back to the key it is looking for, so an entry torn by two threads
+ * writing at once simply reads as a miss instead of as another position's
+ * result. That makes plain, unsynchronized array reads and writes safe.
+ * <p>
+ * Data layout (see the accessors):
+ * <pre>
+ * bits  0-15  best move ({@link chess.Move} encoding, 0 if none)
+ * bits 16-31  score, as a signed 16-bit value
+ * bits 32-39  depth searched
+ * bits 40-41  bound: {@link #LOWER}, {@link #UPPER} or {@link #EXACT}
+ * bits 42-49  generation of the search that stored it
+ * </pre>
+ * The table has a power-of-two number of entries, so the slot is the low bits
+ * of the key. A slot is overwritten when the new result comes from a newer
+ * search, is at least as deep, or is for the same position.
+ */
+public final class TranspositionTable {
+    /** The score is a lower bound: the search failed high. */
+    public static final int LOWER = 1;
+    /** The score is an upper bound: no move beat alpha. */
+    public static final int UPPER = 2;
+    /** The score is exact. */
+    public static final int EXACT = 3;
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final int GENERATIONS = 256;
+
+    private final long[] table;
+    private final int mask;
+    private int generation;
+
+    /**
+     * @param megabytes memory for the table; rounded down to a power-of-two
+     *                  number of entries, and at least one entry
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Transposition table needs at least 1 MB");
+        }
+        long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        // keep the array length (two longs per entry) within Java's limit
+        entries = Math.min(entries, 1L << 29);
+        table = new long[(int) (entries * 2)];
+        mask = (int) (entries - 1);
+    }
+
+    /**
+     * @return the entry data for the key, or 0 if the table holds nothing for
+     * it (a stored entry is never 0, since its bound bits are set)
+     */
+    public long probe(long key) {
+        int slot = slot(key);
+        long data = table[slot + 1];
+        long check = table[slot];
+        return (check ^ data) == key ? data : 0;
+    }
+
+    /**
+     * Stores a search result, unless the slot holds a deeper result for a
+     * different position from the current search.
+     *
+     * @param score already adjusted for mate distance from this position
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int slot = slot(key);
+        long oldData = table[slot + 1];
+        long oldKey = table[slot] ^ oldData;
+        if (oldData != 0 && oldKey != key && generation(oldData) == generation && depth < depth(oldData)) {
+            return;
+        }
+        if (move == 0 && oldKey == key) {
+            // keep the best move of an earlier search of the same position
+            move = move(oldData);
+        }
+        long data = (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) Math.min(depth, 255) << 32)
+                | ((long) bound << 40)
+                | ((long) generation << 42);
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    /**
+     * Marks the start of a new search, so results of earlier searches are
+     * replaced first.
+     */
+    public void newSearch() {
+        generation = (generation + 1) % GENERATIONS;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return how full the table is with entries from the current search, in
+     * permille, sampled over the first thousand slots
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = table[2 * i + 1];
+            if (data != 0 && generation(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 42) & 0xFF);
+    }
+
+    private int slot(long key) {
+        return ((int) key & mask) << 1;
+    }
+}
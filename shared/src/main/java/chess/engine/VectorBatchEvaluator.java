@@ -0,0 +1,80 @@
+package chess.engine;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The SIMD {@link BatchEvaluator}: each lane of a 16-bit vector is one
+ * position. For every square it loads that square's piece codes for a
+ * vector of consecutive positions, looks the codes up in the square's score
+ * table with a lane shuffle, and adds the result to the running sums. A
+ * position's score never leaves the 16-bit range, since even nine queens a
+ * side stay far below it.
+ * <p>
+ * This is the only class that touches {@code jdk.incubator.vector}; it is
+ * only loaded once {@link BatchEvaluator#vector()} has found the module.
+ */
+final class VectorBatchEvaluator implements BatchEvaluator {
+    /**
+     * At least 16 lanes, so a vector holds a square's whole score table. On
+     * 128-bit hardware that is wider than its registers, and the vector API
+     * emulates it more slowly than the scalar evaluator runs.
+     */
+    private static final VectorSpecies<Short> SHORTS = isNative()
+            ? ShortVector.SPECIES_PREFERRED : ShortVector.SPECIES_256;
+    private static final VectorSpecies<Byte> BYTES =
+            ByteVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(SHORTS.vectorBitSize() / 2));
+    /** Half as many lanes as {@link #SHORTS}: each short vector widens into two of these. */
+    private static final VectorSpecies<Integer> INTS =
+            IntVector.SPECIES_PREFERRED.withShape(SHORTS.vectorShape());
+
+    static final VectorBatchEvaluator INSTANCE = new VectorBatchEvaluator();
+
+    private final ShortVector[] tables = new ShortVector[64];
+
+    private VectorBatchEvaluator() {
+        short[] row = new short[SHORTS.length()];
+        for (int square = 0; square < 64; square++) {
+            System.arraycopy(PositionBatch.SCORES[square], 0, row, 0, PositionBatch.SCORES[square].length);
+            tables[square] = ShortVector.fromArray(SHORTS, row, 0);
+        }
+    }
+
+    /**
+     * @return true if the hardware's preferred vectors hold a whole score
+     * table, so this evaluator runs natively
+     */
+    static boolean isNative() {
+        return ShortVector.SPECIES_PREFERRED.length() >= 16;
+    }
+
+    @Override
+    public void evaluate(PositionBatch batch, int[] scores) {
+        int size = batch.size();
+        int capacity = batch.capacity();
+        byte[] squares = batch.squares();
+        byte[] blackToMove = batch.blackToMove();
+        int lanes = SHORTS.length();
+        for (int first = 0; first < size; first += lanes) {
+            ShortVector sum = ShortVector.zero(SHORTS);
+            for (int square = 0; square < 64; square++) {
+                ShortVector codes = (ShortVector) ByteVector.fromArray(BYTES, squares, square * capacity + first)
+                        .convertShape(VectorOperators.B2S, SHORTS, 0);
+                sum = sum.add(codes.selectFrom(tables[square]));
+            }
+            VectorMask<Short> black = ((ShortVector) ByteVector.fromArray(BYTES, blackToMove, first)
+                    .convertShape(VectorOperators.B2S, SHORTS, 0)).compare(VectorOperators.NE, 0);
+            sum = sum.lanewise(VectorOperators.NEG, black);
+            for (int part = 0; part < 2; part++) {
+                int offset = first + part * INTS.length();
+                ((IntVector) sum.convertShape(VectorOperators.S2I, INTS, part))
+                        .intoArray(scores, offset, INTS.indexInRange(offset, size));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChessJsonTests {
+
+    @Test
+    @DisplayName("Factories return one shared instance per value")
+    void flyweights() {
+        assertSame(ChessPosition.of(4, 5), ChessPosition.of(4, 5));
+        assertEquals(new ChessPosition(4, 5), ChessPosition.of(4, 5));
+        assertEquals(new ChessPosition(9, 1), ChessPosition.of(9, 1));
+        assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        assertEquals(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+    }
+
+    @Test
+    @DisplayName("Deserialized games share piece and position instances")
+    void readsFlyweights() {
+        Gson gson = ChessJson.gson();
+        ChessGame game = gson.fromJson(gson.toJson(new ChessGame()), ChessGame.class);
+
+        assertEquals(new ChessGame(), game);
+        assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                game.getBoard().getPiece(new ChessPosition(2, 3)));
+
+        ChessMove move = gson.fromJson(gson.toJson(new ChessMove(new ChessPosition(2, 3), new ChessPosition(4, 3), null)), ChessMove.class);
+        assertSame(ChessPosition.of(2, 3), move.getStartPosition());
+    }
+
+    @Test
+    @DisplayName("JSON matches plain reflective Gson in both directions")
+    void wireCompatible() {
+        Gson plain = new Gson();
+        Gson chess = ChessJson.gson();
+        ChessGame game = new ChessGame();
+
+        assertEquals(plain.toJson(game), chess.toJson(game));
+        assertEquals(game, chess.fromJson(plain.toJson(game), ChessGame.class));
+        assertEquals(game, plain.fromJson(chess.toJson(game), ChessGame.class));
+    }
+
+    @Test
+    @DisplayName("Streaming adapters write byte-for-byte what reflection writes")
+    void matchesReflection() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b");
+        game.setGameOver(true);
+        ChessMove plainMove = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN);
+
+        for (Gson[] pair : new Gson[][]{
+                {new Gson(), ChessJson.gson()},
+                {new GsonBuilder().serializeNulls().create(), ChessJson.builder().serializeNulls().create()}}) {
+            Gson plain = pair[0];
+            Gson chess = pair[1];
+            assertEquals(plain.toJson(game), chess.toJson(game));
+            assertEquals(plain.toJson(game.getBoard()), chess.toJson(game.getBoard()));
+            assertEquals(plain.toJson(plainMove), chess.toJson(plainMove));
+            assertEquals(plain.toJson(promotion), chess.toJson(promotion));
+
+            assertEquals(game, chess.fromJson(plain.toJson(game), ChessGame.class));
+            assertEquals(plainMove, chess.fromJson(plain.toJson(plainMove), ChessMove.class));
+            assertEquals(promotion, chess.fromJson(plain.toJson(promotion), ChessMove.class));
+        }
+    }
+
+    @Test
+    @DisplayName("Decoded boards are indexed and ready for move generation")
+    void decodedBoardWorks() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/3q4/4K3 w");
+        ChessGame decoded = ChessJson.gson().fromJson(new Gson().toJson(game), ChessGame.class);
+
+        assertEquals(game.positionKey(), decoded.positionKey());
+        assertEquals(game.legalMoves(ChessGame.TeamColor.WHITE), decoded.legalMoves(ChessGame.TeamColor.WHITE));
+        assertTrue(decoded.isInCheck(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Unknown enum names are rejected")
+    void rejectsUnknownNames() {
+        assertThrows(JsonParseException.class, () -> ChessJson.gson()
+                .fromJson("{\"color\":\"GREEN\",\"pieceType\":\"KING\"}", ChessPiece.class));
+    }
+}
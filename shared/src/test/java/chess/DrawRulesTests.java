@@ -0,0 +1,93 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static chess.TestGames.play;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawRulesTests {
+
+    @Test
+    @DisplayName("The halfmove clock counts plies since a capture or pawn move and undoes with them")
+    void halfmoveClock() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, "g1f3 g8f6 f3g1");
+        assertEquals(3, game.getHalfmoveClock());
+        play(game, "e7e5");
+        assertEquals(0, game.getHalfmoveClock());
+        play(game, "b1c3 f8b4 c3d5 f6d5");
+        assertEquals(0, game.getHalfmoveClock());
+        game.undoMove();
+        assertEquals(3, game.getHalfmoveClock());
+
+        ChessGame fromFen = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 42 30");
+        assertEquals(42, fromFen.getHalfmoveClock());
+        assertEquals("4k3/8/8/8/8/8/8/R3K3 w - - 42 1", fromFen.toFen());
+        play(fromFen, "a1a7");
+        assertEquals(43, fromFen.getHalfmoveClock());
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - x 1"));
+    }
+
+    @Test
+    @DisplayName("Fifty moves may be claimed, seventy-five end the game, mate still counts")
+    void moveRules() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 98 1");
+        assertEquals(ChessGame.GameStatus.ONGOING, game.status());
+        play(game, "a1a2 e8f8");
+        assertEquals(ChessGame.GameStatus.FIFTY_MOVE_RULE, game.status());
+        assertTrue(game.status().isDraw());
+        assertFalse(game.status().isFinal());
+
+        game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 148 1");
+        play(game, "a1a2 e8f8");
+        assertEquals(ChessGame.GameStatus.SEVENTY_FIVE_MOVE_RULE, game.status());
+        assertTrue(game.status().isFinal());
+
+        game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 149 1");
+        play(game, "a1a8");
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.status());
+    }
+
+    @Test
+    @DisplayName("Threefold repetition shows in the status")
+    void repetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, "g1f3 g8f6 f3g1 f6g8 g1f3 g8f6 f3g1");
+        assertEquals(ChessGame.GameStatus.ONGOING, game.status());
+        play(game, "f6g8");
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.status());
+        game.undoMove();
+        assertEquals(ChessGame.GameStatus.ONGOING, game.status());
+    }
+
+    @Test
+    @DisplayName("Insufficient material: bare kings, a single minor piece, bishops all on one color")
+    void insufficientMaterial() throws InvalidMoveException {
+        assertInsufficient(true, "4k3/8/8/8/8/8/8/4K3 w");
+        assertInsufficient(true, "4k3/8/8/8/8/8/8/2B1K3 w");
+        assertInsufficient(true, "4k3/8/8/8/8/8/8/1N2K3 b");
+        assertInsufficient(true, "2b1k3/8/8/8/8/8/8/4KB2 w");
+        assertInsufficient(true, "4k3/8/8/8/8/8/1B6/B3K3 w");
+        assertInsufficient(false, "1b2k3/8/8/8/8/8/8/4KB2 w");
+        assertInsufficient(false, "4k3/8/8/8/8/8/8/1NB1K3 w");
+        assertInsufficient(false, "1n2k3/8/8/8/8/8/8/1N2K3 w");
+        assertInsufficient(false, "4k3/8/8/8/8/8/4P3/4K3 w");
+        assertInsufficient(false, "4k3/8/8/8/8/8/8/R3K3 w");
+        assertFalse(new ChessGame().isInsufficientMaterial());
+
+        // the last capture leaves bare kings
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/3q4/4K3 w");
+        play(game, "e1d2");
+        assertEquals(ChessGame.GameStatus.INSUFFICIENT_MATERIAL, game.status());
+        assertEquals(game.getBoard().materialSignature(), ChessGame.fromFen("8/8/8/8/8/8/3K4/4k3 w").getBoard().materialSignature());
+        game.undoMove();
+        assertFalse(game.isInsufficientMaterial());
+    }
+
+    private static void assertInsufficient(boolean expected, String fen) {
+        ChessGame game = ChessGame.fromFen(fen);
+        assertEquals(expected, game.isInsufficientMaterial(), fen);
+        assertEquals(expected, game.status() == ChessGame.GameStatus.INSUFFICIENT_MATERIAL, fen);
+    }
+}
@@ -0,0 +1,66 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenTests {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    @Test
+    @DisplayName("New game writes the standard start position")
+    void startPosition() {
+        assertEquals(START, new ChessGame().toFen());
+        assertEquals(new ChessGame(), ChessGame.fromFen(START));
+    }
+
+    @Test
+    @DisplayName("Side to move and game over round-trip")
+    void roundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1", game.toFen());
+
+        game.setGameOver(true);
+        String fen = game.toFen();
+        assertTrue(fen.endsWith(" over"));
+
+        ChessGame loaded = ChessGame.fromFen(fen);
+        assertEquals(game, loaded);
+        assertTrue(loaded.isGameOver());
+        assertEquals(ChessGame.TeamColor.BLACK, loaded.getTeamTurn());
+    }
+
+    @Test
+    @DisplayName("Placement alone is enough and castling fields are ignored")
+    void shortAndForeignFen() {
+        ChessGame placementOnly = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R");
+        assertEquals(ChessGame.TeamColor.WHITE, placementOnly.getTeamTurn());
+        assertEquals(placementOnly, ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w K - 3 40"));
+    }
+
+    @Test
+    @DisplayName("Malformed FEN is rejected")
+    void malformed() {
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8 w"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("9/8/8/8/8/8/8/8 w"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("ppppppppp/8/8/8/8/8/8/8 w"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("x7/8/8/8/8/8/8/8 w"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 white"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 w - - 0 1 done"));
+    }
+
+    @Test
+    @DisplayName("FEN wire format is readable by a JSON reader")
+    void wireFormat() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/3q4/4K3 w");
+        Gson fen = ChessJson.gson(GameFormat.FEN);
+
+        String json = fen.toJson(game);
+        assertEquals("\"" + game.toFen() + "\"", json);
+        assertEquals(game, ChessJson.gson().fromJson(json, ChessGame.class));
+        assertEquals(game, fen.fromJson(ChessJson.gson().toJson(game), ChessGame.class));
+    }
+}
@@ -0,0 +1,98 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static chess.TestGames.play;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCodecTests {
+
+    @Test
+    @DisplayName("Snapshot round-trips placement, turn and game over")
+    void roundTrip() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b");
+        game.setGameOver(true);
+
+        byte[] bytes = GameCodec.encode(game);
+        assertEquals(GameCodec.SIZE, bytes.length);
+        assertTrue(GameCodec.isSnapshot(bytes));
+
+        ChessGame decoded = GameCodec.decode(bytes);
+        assertEquals(game, decoded);
+        assertEquals(ChessGame.TeamColor.BLACK, decoded.getTeamTurn());
+        assertTrue(decoded.isGameOver());
+        assertEquals(game.positionKey(), decoded.positionKey());
+    }
+
+    @Test
+    @DisplayName("Encoding works in place within a larger buffer")
+    void bufferPositions() {
+        ByteBuffer buffer = ByteBuffer.allocate(3 + 2 * GameCodec.SIZE);
+        buffer.put(new byte[3]);
+        GameCodec.encode(new ChessGame(), buffer);
+        GameCodec.encode(ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 b"), buffer);
+        assertFalse(buffer.hasRemaining());
+
+        buffer.position(3);
+        assertEquals(new ChessGame(), GameCodec.decode(buffer));
+        assertEquals(ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 b"), GameCodec.decode(buffer));
+    }
+
+    @Test
+    @DisplayName("Text formats are never mistaken for snapshots")
+    void notText() {
+        assertFalse(GameCodec.isSnapshot("{\"currentBoard\":{}}".getBytes()));
+        assertFalse(GameCodec.isSnapshot(new ChessGame().toFen().getBytes()));
+    }
+
+    @Test
+    @DisplayName("Bad snapshots are rejected")
+    void rejectsBadInput() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        bytes[0] = 4;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+
+        byte[] badPiece = GameCodec.encode(new ChessGame());
+        badPiece[20] = (byte) 0xDD;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(badPiece));
+
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[10]));
+        byte[] truncated = new byte[]{GameCodec.VERSION, 0, 0};
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(truncated));
+    }
+
+    @Test
+    @DisplayName("The halfmove clock round-trips, and version 1 snapshots still read")
+    void halfmoveClock() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4KQ2 b - - 87 1");
+        assertEquals(87, GameCodec.decode(GameCodec.encode(game)).getHalfmoveClock());
+
+        byte[] version1 = new byte[GameCodec.SIZE - 1];
+        System.arraycopy(GameCodec.encode(game), 0, version1, 0, version1.length);
+        version1[0] = 1;
+        assertTrue(GameCodec.isSnapshot(version1));
+        ChessGame decoded = GameCodec.decode(version1);
+        assertEquals(game, decoded);
+        assertEquals(0, decoded.getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Version 3 snapshots add the moves since the last capture or pawn move")
+    void history() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, "e2e4 g8f6 g1f3 f6g8");
+        byte[] bytes = GameCodec.encodeWithHistory(game);
+        assertEquals(GameCodec.SIZE + 1 + 3 * 2, bytes.length);
+        assertEquals(GameCodec.HISTORY_VERSION, bytes[0]);
+        assertTrue(GameCodec.isSnapshot(bytes));
+        ChessGame decoded = GameCodec.decode(bytes);
+        assertEquals(game.getMoveHistory().subList(1, 4), decoded.getMoveHistory());
+
+        bytes[GameCodec.SIZE + 2] = 0;
+        bytes[GameCodec.SIZE + 1] = 0;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+    }
+}
@@ -0,0 +1,95 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static chess.ChessGame.GameStatus.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStatusTests {
+
+    private static final String CHECK_POSITION = "rnbqkbnr/ppppp1pp/8/5p1Q/4P3/8/PPPP1PPP/RNB1KBNR b";
+    private static final String FOOLS_MATE = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w";
+    private static final String STALEMATE_POSITION = "7k/5Q2/6K1/8/8/8/8/8 b";
+
+    @Test
+    @DisplayName("Start position is ongoing")
+    void ongoing() {
+        assertEquals(ONGOING, new ChessGame().status());
+    }
+
+    @Test
+    @DisplayName("Check with a way out")
+    void check() {
+        ChessGame game = Perft.load(CHECK_POSITION);
+        assertEquals(CHECK, game.status());
+        assertFalse(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Checkmate")
+    void checkmate() {
+        ChessGame game = Perft.load(FOOLS_MATE);
+        assertEquals(CHECKMATE, game.status());
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Stalemate")
+    void stalemate() {
+        ChessGame game = Perft.load(STALEMATE_POSITION);
+        assertEquals(STALEMATE, game.status());
+        assertTrue(game.isInStalemate(ChessGame.TeamColor.BLACK));
+        assertFalse(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Status of the side not to move is computed, not cached")
+    void otherSide() {
+        ChessGame game = Perft.load(STALEMATE_POSITION);
+        assertEquals(STALEMATE, game.status());
+        assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+        assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        assertEquals(STALEMATE, game.status());
+    }
+
+    @Test
+    @DisplayName("Cached status is recomputed after a move")
+    void invalidatedByMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(ONGOING, game.status());
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(2, 7, 4, 7));
+        assertEquals(ONGOING, game.status());
+        game.makeMove(move(8, 4, 4, 8));
+        assertEquals(CHECKMATE, game.status());
+    }
+
+    @Test
+    @DisplayName("Cached status is recomputed after setBoard")
+    void invalidatedBySetBoard() {
+        ChessGame game = Perft.load(FOOLS_MATE);
+        assertEquals(CHECKMATE, game.status());
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        game.setBoard(board);
+        assertEquals(ONGOING, game.status());
+    }
+
+    @Test
+    @DisplayName("Cached status is recomputed after setTeamTurn")
+    void invalidatedBySetTeamTurn() {
+        ChessGame game = Perft.load(STALEMATE_POSITION);
+        assertEquals(STALEMATE, game.status());
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(ONGOING, game.status());
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertEquals(STALEMATE, game.status());
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
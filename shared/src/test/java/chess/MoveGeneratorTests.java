@@ -0,0 +1,78 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveGeneratorTests {
+
+    private static final String[] POSITIONS = {
+            Perft.START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w",
+    };
+
+    @Test
+    @DisplayName("Iterator yields exactly the legal moves")
+    void iteratorMatchesLegalMoves() {
+        for (String fen : POSITIONS) {
+            ChessGame game = Perft.load(fen);
+            for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+                List<ChessMove> iterated = new ArrayList<>();
+                game.legalMoveIterator(team).forEachRemaining(iterated::add);
+                Set<ChessMove> expected = new HashSet<>(game.legalMoves(team));
+                assertEquals(expected.size(), iterated.size(), fen);
+                assertEquals(expected, new HashSet<>(iterated), fen);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Iterator expands promotions")
+    void iteratorPromotions() {
+        ChessGame game = Perft.load("7k/P7/8/8/8/8/8/K7 w");
+        long promotions = game.legalMoveStream(ChessGame.TeamColor.WHITE)
+                .filter(move -> move.getPromotionPiece() != null)
+                .count();
+        assertEquals(4, promotions);
+    }
+
+    @Test
+    @DisplayName("Iterator stops when exhausted")
+    void iteratorExhausted() {
+        Iterator<ChessMove> moves = Perft.load("7k/8/8/8/8/8/8/K7 w").legalMoveIterator(ChessGame.TeamColor.WHITE);
+        int count = 0;
+        while (moves.hasNext()) {
+            moves.next();
+            count++;
+        }
+        assertEquals(3, count);
+        assertThrows(java.util.NoSuchElementException.class, moves::next);
+    }
+
+    @Test
+    @DisplayName("Any legal move agrees with the move list")
+    void hasAnyLegalMove() {
+        String[] positions = {
+                Perft.START_POSITION,
+                "7k/5Q2/6K1/8/8/8/8/8 b",   // stalemate
+                "6Qk/8/6K1/8/8/8/8/8 b",    // checkmate
+                "7k/6Q1/6K1/8/8/8/8/8 b",   // checkmate by a defended queen
+                "7k/6Q1/8/8/8/8/8/K7 b",    // king can capture the queen
+        };
+        for (String fen : positions) {
+            ChessGame game = Perft.load(fen);
+            for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+                assertEquals(!game.legalMoves(team).isEmpty(), game.hasAnyLegalMove(team), fen + " " + team);
+            }
+        }
+    }
+}
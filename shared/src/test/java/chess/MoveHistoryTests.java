@@ -0,0 +1,132 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static chess.TestGames.play;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveHistoryTests {
+
+    @Test
+    @DisplayName("Undoing every move restores each earlier position exactly")
+    void undoRestores() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w");
+        assertNull(game.undoMove());
+
+        SplittableRandom random = new SplittableRandom(8);
+        List<String> fens = new ArrayList<>();
+        List<ChessMove> played = new ArrayList<>();
+        for (int ply = 0; ply < 60 && game.status() != ChessGame.GameStatus.CHECKMATE
+                && game.status() != ChessGame.GameStatus.STALEMATE; ply++) {
+            List<ChessMove> moves = new ArrayList<>(game.legalMoves(game.getTeamTurn()));
+            ChessMove move = moves.get(random.nextInt(moves.size()));
+            fens.add(game.toFen());
+            played.add(move);
+            game.makeMove(move);
+        }
+        assertEquals(played, game.getMoveHistory());
+
+        for (int ply = played.size() - 1; ply >= 0; ply--) {
+            assertEquals(played.get(ply), game.undoMove());
+            assertEquals(fens.get(ply), game.toFen());
+            assertEquals(ChessGame.fromFen(fens.get(ply)).positionKey(), game.positionKey());
+        }
+        assertNull(game.undoMove());
+    }
+
+    @Test
+    @DisplayName("Threefold repetition counts positions since the last pawn move or capture")
+    void threefold() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, "g1f3 g8f6 f3g1 f6g8");
+        assertEquals(1, game.repetitions());
+        assertFalse(game.isThreefoldRepetition());
+        play(game, "g1f3 g8f6 f3g1 f6g8");
+        assertEquals(2, game.repetitions());
+        assertTrue(game.isThreefoldRepetition());
+
+        // same placement with the other side to move is a different position
+        play(game, "g1f3");
+        assertEquals(2, game.repetitions());
+        play(game, "e7e5 f3g1 e5e4 g1f3");
+        assertEquals(0, game.repetitions());
+
+        game.undoMove();
+        game.undoMove();
+        game.undoMove();
+        game.undoMove();
+        assertEquals(2, game.repetitions());
+    }
+
+    @Test
+    @DisplayName("Stored games keep the moves since the last capture or pawn move in every format")
+    void storedHistory() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/1P6/8/8/8/8/6p1/4K1NR b");
+        play(game, "g2h1q b7b8n e8e7 b8c6 e7e8 c6b8 e8e7 b8c6 e7e8 c6b8");
+        assertEquals(2, game.repetitions());
+        ChessGame irreversible = ChessGame.fromFen("4k3/1P6/8/8/8/8/6p1/4K1NR b");
+        play(irreversible, "g2h1q b7b8n");
+
+        Gson json = ChessJson.gson(GameFormat.JSON, true);
+        Gson fen = ChessJson.gson(GameFormat.FEN, true);
+        List<ChessGame> stored = List.of(
+                json.fromJson(json.toJson(game), ChessGame.class),
+                fen.fromJson(fen.toJson(game), ChessGame.class),
+                GameCodec.decode(GameCodec.encodeWithHistory(game)));
+        for (ChessGame decoded : stored) {
+            assertEquals(game, decoded);
+            assertEquals(game.getMoveHistory().subList(2, 10), decoded.getMoveHistory());
+            assertEquals(8, decoded.getHalfmoveClock());
+            assertTrue(decoded.isThreefoldRepetition());
+            while (decoded.undoMove() != null) {
+                assertNotNull(game.undoMove());
+                assertEquals(game, decoded);
+                assertEquals(game.getHalfmoveClock(), decoded.getHalfmoveClock());
+            }
+            assertEquals(irreversible, decoded);
+            play(game, "e8e7 b8c6 e7e8 c6b8 e8e7 b8c6 e7e8 c6b8");
+        }
+    }
+
+    @Test
+    @DisplayName("Messages leave the history out, older full histories still read")
+    void historyFormats() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/1P6/8/8/8/8/6p1/4K1NR b");
+        play(game, "g2h1q b7b8n e8e7 b8c6");
+        assertFalse(ChessJson.gson().toJson(game).contains("history"));
+        assertTrue(ChessGame.fromFen(game.toFen()).getMoveHistory().isEmpty());
+        assertEquals(GameCodec.SIZE, GameCodec.encode(game).length);
+
+        // rows written before only the reversible moves were stored
+        Gson gson = ChessJson.gson();
+        String full = gson.toJson(game).replace("}", ",\"history\":" + Arrays.toString(game.history().toArray()) + "}");
+        ChessGame decoded = gson.fromJson(full, ChessGame.class);
+        assertEquals(game.getMoveHistory(), decoded.getMoveHistory());
+        assertEquals(2, decoded.getHalfmoveClock());
+
+        String json = gson.toJson(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w"));
+        String tampered = json.replace("}", ",\"history\":[" + Move.parse("e2e4") + "]}");
+        assertThrows(JsonParseException.class, () -> gson.fromJson(tampered, ChessGame.class));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 1 1 e2e4"));
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 1 1 e1"));
+    }
+
+    @Test
+    @DisplayName("A position set up by hand starts a new history")
+    void setUpClears() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        play(game, "e2e4 e7e5");
+        game.setBoard(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w").getBoard());
+
+        assertTrue(game.getMoveHistory().isEmpty());
+        assertNull(game.undoMove());
+    }
+}
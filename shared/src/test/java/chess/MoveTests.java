@@ -0,0 +1,66 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveTests {
+
+    @Test
+    @DisplayName("Encoded moves round-trip through ChessMove")
+    void roundTrip() {
+        ChessMove plain = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+
+        assertEquals(plain, Move.toChessMove(Move.of(plain)));
+        assertEquals(promotion, Move.toChessMove(Move.of(promotion)));
+        assertFalse(Move.isPromotion(Move.of(plain)));
+        assertEquals(ChessPiece.PieceType.KNIGHT, Move.promotion(Move.of(promotion)));
+        assertEquals("e2e4", Move.toString(Move.of(plain)));
+        assertEquals("a7b8n", Move.toString(Move.of(promotion)));
+        assertEquals(Move.of(plain), Move.parse("e2e4"));
+        assertEquals(Move.of(promotion), Move.parse("a7b8n"));
+        assertThrows(IllegalArgumentException.class, () -> Move.parse("e2e9"));
+        assertThrows(IllegalArgumentException.class, () -> Move.parse("e7e8k"));
+    }
+
+    @Test
+    @DisplayName("Move list grows past its capacity and can be reused")
+    void moveListReuse() {
+        MoveList moves = new MoveList(2);
+        for (int to = 1; to < 10; to++) {
+            moves.add(Move.of(0, to));
+        }
+        assertEquals(9, moves.size());
+        assertTrue(moves.contains(Move.of(0, 9)));
+
+        moves.swap(0, 8);
+        assertEquals(Move.of(0, 9), moves.get(0));
+
+        moves.clear();
+        assertTrue(moves.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> moves.get(0));
+    }
+
+    @Test
+    @DisplayName("Int make/unmake restores the board")
+    void applyAndUndo() {
+        ChessGame game = Perft.load("4k3/1P6/8/8/8/8/8/r3K3 w");
+        ChessBoard board = game.getBoard();
+        ChessBoard before = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            before.addPiece(Bitboards.position(square), board.getPiece(square));
+        }
+        long key = board.zobristKey();
+
+        int move = Move.of(Bitboards.square(7, 2), Bitboards.square(8, 2), ChessPiece.PieceType.QUEEN);
+        ChessPiece captured = board.applyMove(move);
+        assertNull(captured);
+        assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN), board.getPiece(Bitboards.square(8, 2)));
+
+        board.undoMove(move, captured);
+        assertEquals(before, board);
+        assertEquals(key, board.zobristKey());
+    }
+}
@@ -0,0 +1,54 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static chess.TestGames.KIWIPETE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelPerftTests {
+
+    private static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w";
+
+    @Test
+    @DisplayName("Counts match the sequential perft")
+    void matchesPerft() {
+        ParallelPerft perft = new ParallelPerft();
+        for (String fen : new String[]{Perft.START_POSITION, KIWIPETE, ENDGAME}) {
+            ChessGame game = Perft.load(fen);
+            for (int depth = 0; depth <= 4; depth++) {
+                assertEquals(Perft.perft(game, depth), perft.perft(game, depth), "perft(" + depth + ") of " + fen);
+            }
+        }
+        assertEquals(4865351, perft.perft(new ChessGame(), 5));
+    }
+
+    @Test
+    @DisplayName("The subtree cache does not change the counts")
+    void cached() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelPerft perft = new ParallelPerft(pool, 4);
+            assertEquals(4865351, perft.perft(new ChessGame(), 5));
+            // a second run is answered mostly from the cache
+            assertEquals(4865351, perft.perft(new ChessGame(), 5));
+            assertEquals(43087, perft.perft(Perft.load(ENDGAME), 4));
+            assertEquals(86585, perft.perft(Perft.load(KIWIPETE), 3));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Divide matches the sequential divide and leaves the game unchanged")
+    void divide() {
+        ChessGame game = Perft.load(KIWIPETE);
+        Map<ChessMove, Long> counts = new ParallelPerft().divide(game, 3);
+
+        assertEquals(Perft.divide(Perft.load(KIWIPETE), 3), counts);
+        assertEquals(Perft.load(KIWIPETE), game);
+    }
+}
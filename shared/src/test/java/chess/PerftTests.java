@@ -0,0 +1,78 @@
+package chess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static chess.TestGames.KIWIPETE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Node counts for the standard perft positions. This rule set has no castling
+ * or en passant, so apart from the start position the counts differ from the
+ * published ones; they were produced by the original copy-the-board
+ * implementation of validMoves.
+ */
+class PerftTests {
+
+    private static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w";
+    private static final String PROMOTIONS = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w";
+    private static final String TACTICAL = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w";
+    private static final String MIDDLEGAME = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w";
+
+    @Test
+    @DisplayName("Start position")
+    void startPosition() {
+        assertCounts(Perft.START_POSITION, 20, 400, 8902, 197281);
+    }
+
+    @Test
+    @DisplayName("Kiwipete")
+    void kiwipete() {
+        assertCounts(KIWIPETE, 46, 1865, 86585);
+    }
+
+    @Test
+    @DisplayName("Rook and pawn endgame")
+    void endgame() {
+        assertCounts(ENDGAME, 14, 191, 2810, 43087);
+    }
+
+    @Test
+    @DisplayName("Promotions and pins")
+    void promotions() {
+        assertCounts(PROMOTIONS, 6, 258, 9217);
+    }
+
+    @Test
+    @DisplayName("Tactical position")
+    void tactical() {
+        assertCounts(TACTICAL, 43, 1452, 59922);
+    }
+
+    @Test
+    @DisplayName("Quiet middlegame")
+    void middlegame() {
+        assertCounts(MIDDLEGAME, 46, 2079, 89890);
+    }
+
+    @Test
+    @DisplayName("Divide sums to perft and leaves the game unchanged")
+    void divideMatchesPerft() {
+        ChessGame game = Perft.load(KIWIPETE);
+        ChessGame before = Perft.load(KIWIPETE);
+        Map<ChessMove, Long> counts = Perft.divide(game, 2);
+        assertEquals(46, counts.size());
+        assertEquals(1865, counts.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(before, game);
+        assertEquals(before.positionKey(), game.positionKey());
+    }
+
+    private static void assertCounts(String fen, long... expected) {
+        ChessGame game = Perft.load(fen);
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], Perft.perft(game, depth), "perft(" + depth + ") of " + fen);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Positions and move helpers shared by the chess tests. Moves are written in
+ * coordinate notation, e.g. {@code e2e4} or {@code e7e8q}.
+ */
+public final class TestGames {
+    /** The "Kiwipete" perft position: many captures, pins and checks. */
+    public static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w";
+
+    private TestGames() {
+    }
+
+    public static ChessMove move(String text) {
+        return Move.toChessMove(Move.parse(text));
+    }
+
+    /**
+     * @param line moves separated by single spaces
+     */
+    public static List<ChessMove> moves(String line) {
+        List<ChessMove> moves = new ArrayList<>();
+        for (String text : line.split(" ")) {
+            moves.add(move(text));
+        }
+        return moves;
+    }
+
+    /**
+     * Makes each move of the line in turn.
+     *
+     * @param line moves separated by single spaces
+     */
+    public static void play(ChessGame game, String line) throws InvalidMoveException {
+        for (ChessMove move : moves(line)) {
+            game.makeMove(move);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineTests {
+
+    @Test
+    @DisplayName("Finds a back-rank mate in one")
+    void mateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(4));
+
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertTrue(result.isMate());
+        assertEquals(1, result.mateIn());
+    }
+
+    @Test
+    @DisplayName("Finds a mate in two")
+    void mateInTwo() {
+        // the king has to step up first: 1. Kg6 Kg8 2. Ra8# or 1. Kf7 Kh7 2. Rh1#
+        ChessGame game = ChessGame.fromFen("7k/8/5K2/8/8/8/8/R7 w");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(6));
+
+        assertTrue(result.isMate());
+        assertEquals(2, result.mateIn());
+        assertEquals(3, result.principalVariation().size());
+        assertEquals(result.bestMove(), result.principalVariation().get(0));
+    }
+
+    @Test
+    @DisplayName("Wins a hanging queen")
+    void winsMaterial() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(3));
+
+        assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null), result.bestMove());
+        assertTrue(result.score() > 300);
+    }
+
+    @Test
+    @DisplayName("Promotes to a queen")
+    void promotes() {
+        ChessGame game = ChessGame.fromFen("8/P6k/8/8/8/8/8/K7 w");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(3));
+
+        assertEquals(ChessPiece.PieceType.QUEEN, result.bestMove().getPromotionPiece());
+    }
+
+    @Test
+    @DisplayName("Reports no move when checkmated or stalemated")
+    void noLegalMoves() {
+        SearchResult mated = new Engine().search(ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b"), SearchLimits.depth(3));
+        assertNull(mated.bestMove());
+        assertEquals(-Engine.MATE, mated.score());
+
+        SearchResult stalemate = new Engine().search(ChessGame.fromFen("k7/8/1Q6/8/8/8/8/7K b"), SearchLimits.depth(3));
+        assertNull(stalemate.bestMove());
+        assertEquals(0, stalemate.score());
+    }
+
+    @Test
+    @DisplayName("Iterations deepen one ply at a time and the game is untouched")
+    void iterations() {
+        ChessGame game = new ChessGame();
+        List<SearchResult> iterations = new ArrayList<>();
+        SearchResult result = new Engine().search(game, SearchLimits.depth(4), iterations::add);
+
+        assertEquals(4, iterations.size());
+        for (int i = 0; i < iterations.size(); i++) {
+            assertEquals(i + 1, iterations.get(i).depth());
+            assertFalse(iterations.get(i).principalVariation().isEmpty());
+        }
+        assertEquals(4, result.depth());
+        assertTrue(result.nodes() > 0);
+        assertTrue(result.nps() > 0);
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    @DisplayName("Node and time limits stop the search")
+    void limits() {
+        SearchResult byNodes = new Engine().search(new ChessGame(), SearchLimits.nodes(5_000));
+        assertTrue(byNodes.nodes() <= 5_000);
+        assertNotNull(byNodes.bestMove());
+
+        long start = System.nanoTime();
+        SearchResult byTime = new Engine().search(new ChessGame(), SearchLimits.time(Duration.ofMillis(200)));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertNotNull(byTime.bestMove());
+    }
+
+    @Test
+    @DisplayName("Cancellation stops an unlimited search")
+    void cancellation() throws Exception {
+        Engine engine = new Engine();
+        CompletableFuture<SearchResult> search = CompletableFuture.supplyAsync(
+                () -> engine.search(new ChessGame(), SearchLimits.infinite()));
+        Thread.sleep(100);
+        engine.cancel();
+
+        SearchResult result = search.get(5, TimeUnit.SECONDS);
+        assertNotNull(result.bestMove());
+    }
+
+    @Test
+    @DisplayName("Negative limits are rejected")
+    void negativeLimits() {
+        assertThrows(IllegalArgumentException.class, () -> SearchLimits.depth(-1));
+    }
+}
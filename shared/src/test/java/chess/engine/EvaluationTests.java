@@ -0,0 +1,171 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PieceSquareTables;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static chess.TestGames.KIWIPETE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class EvaluationTests {
+
+    @Test
+    @DisplayName("The board's material score follows moves and take-backs")
+    void incrementalMaterial() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        ChessBoard board = game.getBoard();
+        int start = board.materialScore();
+        assertEquals(PieceSquareTables.score(board), start);
+
+        SplittableRandom random = new SplittableRandom(3);
+        ChessGame.TeamColor side = game.getTeamTurn();
+        int[] played = new int[60];
+        ChessPiece[] captures = new ChessPiece[60];
+        MoveList moves = new MoveList();
+        int plies = 0;
+        for (; plies < played.length; plies++) {
+            moves.clear();
+            MoveGenerator.legalMoves(board, side, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            played[plies] = moves.get(random.nextInt(moves.size()));
+            captures[plies] = board.applyMove(played[plies]);
+            assertEquals(PieceSquareTables.score(board), board.materialScore());
+            side = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        }
+        for (int ply = plies - 1; ply >= 0; ply--) {
+            board.undoMove(played[ply], captures[ply]);
+        }
+        assertEquals(start, board.materialScore());
+        assertEquals(0, new ChessGame().getBoard().materialScore());
+    }
+
+    @Test
+    @DisplayName("Accumulators updated move by move match a fresh computation")
+    void incrementalAccumulator() {
+        Nnue network = Nnue.random(32, 11);
+        ChessBoard board = ChessGame.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w").getBoard();
+        Nnue.Accumulator current = network.newAccumulator();
+        current.refresh(board);
+        Nnue.Accumulator next = network.newAccumulator();
+        Nnue.Accumulator fresh = network.newAccumulator();
+
+        SplittableRandom random = new SplittableRandom(5);
+        ChessGame.TeamColor side = ChessGame.TeamColor.WHITE;
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < 40; ply++) {
+            moves.clear();
+            MoveGenerator.legalMoves(board, side, moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            int move = moves.get(random.nextInt(moves.size()));
+            ChessPiece moved = board.getPiece(Move.from(move));
+            ChessPiece captured = board.applyMove(move);
+            next.copyFrom(current);
+            next.applyMove(move, moved, captured);
+            fresh.refresh(board);
+            assertTrue(next.sameAs(fresh), "after " + Move.toString(move));
+            current.copyFrom(next);
+            side = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        }
+    }
+
+    @Test
+    @DisplayName("The network scores mirrored positions the same for the side to move")
+    void symmetry() {
+        Nnue network = Nnue.random(16, 2);
+        ChessBoard white = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w").getBoard();
+        ChessBoard black = ChessGame.fromFen("4k3/3r4/8/8/3Q4/8/8/4K3 b").getBoard();
+        assertEquals(network.evaluate(white, ChessGame.TeamColor.WHITE), network.evaluate(black, ChessGame.TeamColor.BLACK));
+        assertEquals(network.evaluate(white, ChessGame.TeamColor.BLACK), network.evaluate(black, ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Networks round-trip through their file format")
+    void fileRoundTrip(@TempDir Path directory) throws Exception {
+        Nnue network = Nnue.random(8, 9);
+        Path path = directory.resolve("net.nnue");
+        network.write(path);
+        Nnue loaded = Nnue.load(path);
+
+        ChessBoard board = ChessGame.fromFen(KIWIPETE).getBoard();
+        assertEquals(8, loaded.hiddenSize());
+        assertEquals(network.evaluate(board, ChessGame.TeamColor.WHITE), loaded.evaluate(board, ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("A search with a network still finds mates")
+    void searchWithNetwork() {
+        Engine engine = new Engine(new TranspositionTable(1), Nnue.random(16, 4));
+        SearchResult result = engine.search(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w"), SearchLimits.depth(4));
+
+        assertEquals(Move.toChessMove(Move.parse("a1a8")), result.bestMove());
+        assertEquals(1, result.mateIn());
+    }
+
+    @Test
+    @DisplayName("Batch evaluation matches the evaluator for every position, on both paths")
+    void batchEvaluation() {
+        // not a whole number of vectors, so the last one is partly used
+        PositionBatch batch = new PositionBatch(203);
+        int[] expected = new int[batch.capacity()];
+        SplittableRandom random = new SplittableRandom(17);
+        MoveList moves = new MoveList();
+        while (batch.size() < 203) {
+            ChessBoard board = ChessGame.fromFen(KIWIPETE).getBoard();
+            ChessGame.TeamColor side = ChessGame.TeamColor.WHITE;
+            for (int ply = 0; ply < 40 && batch.size() < 203; ply++) {
+                moves.clear();
+                MoveGenerator.legalMoves(board, side, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                board.applyMove(moves.get(random.nextInt(moves.size())));
+                side = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                expected[batch.add(board, side)] = Evaluator.evaluate(board, side);
+            }
+        }
+        assertEquals(256, batch.capacity());
+
+        int[] scalar = new int[203];
+        BatchEvaluator.scalar().evaluate(batch, scalar);
+        assertArrayEquals(Arrays.copyOf(expected, 203), scalar);
+
+        assumeTrue(BatchEvaluator.vectorSupported(), "JVM started without jdk.incubator.vector");
+        int[] vector = new int[203];
+        BatchEvaluator.vector().evaluate(batch, vector);
+        assertArrayEquals(scalar, vector);
+        BatchEvaluator preferred = VectorBatchEvaluator.isNative() ? BatchEvaluator.vector() : BatchEvaluator.scalar();
+        assertSame(preferred, BatchEvaluator.create());
+    }
+
+    @Test
+    @DisplayName("A full batch refuses positions until it is cleared")
+    void batchClear() {
+        PositionBatch batch = new PositionBatch(1);
+        while (batch.size() < batch.capacity()) {
+            batch.add(ChessGame.fromFen(KIWIPETE));
+        }
+        assertThrows(IllegalStateException.class, () -> batch.add(new ChessGame()));
+        batch.clear();
+        assertEquals(0, batch.add(ChessGame.fromFen("4k3/8/8/8/8/8/8/3QK3 b")));
+
+        int[] scores = new int[1];
+        BatchEvaluator.create().evaluate(batch, scores);
+        assertEquals(-PieceSquareTables.score(ChessGame.fromFen("4k3/8/8/8/8/8/8/3QK3 b").getBoard()), scores[0]);
+    }
+}
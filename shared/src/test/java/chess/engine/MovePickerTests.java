@@ -0,0 +1,114 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static chess.TestGames.KIWIPETE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovePickerTests {
+
+    /** Qxa4 wins a knight; Rxd5 loses the rook to c6xd5. */
+    private static final String CAPTURES = "3rk3/8/2p5/3p4/n7/8/3R4/3QK3 w";
+
+    @Test
+    @DisplayName("Static exchange evaluation plays out recaptures, including x-rays")
+    void staticExchange() {
+        MoveOrdering ordering = new MoveOrdering();
+        assertEquals(100, ordering.see(ChessGame.fromFen("4k3/8/8/3p4/4P3/8/8/4K3 w").getBoard(), Move.parse("e4d5")));
+        assertEquals(-400, ordering.see(ChessGame.fromFen("4k3/8/2p5/3p4/8/8/8/3RK3 w").getBoard(), Move.parse("d1d5")));
+        // the queen behind the rook makes the recapture Rxd5 a mistake for black
+        assertEquals(100, ordering.see(ChessGame.fromFen("3rk3/8/8/3p4/8/8/3R4/3QK3 w").getBoard(), Move.parse("d2d5")));
+        assertEquals(-400, ordering.see(ChessGame.fromFen("3rk3/8/8/3p4/8/8/3R4/4K3 w").getBoard(), Move.parse("d2d5")));
+        // the king cannot take back on a defended square
+        assertEquals(100, ordering.see(ChessGame.fromFen("8/8/8/3pk3/8/8/6B1/3RK3 w").getBoard(), Move.parse("d1d5")));
+        assertTrue(ordering.see(ChessGame.fromFen(CAPTURES).getBoard(), Move.parse("d2d5")) < 0);
+    }
+
+    @Test
+    @DisplayName("Moves come in stages: table move, winning captures, killers, quiets, losing captures")
+    void stages() {
+        ChessBoard board = ChessGame.fromFen(CAPTURES).getBoard();
+        MoveOrdering ordering = new MoveOrdering();
+        ordering.recordCutoff(ChessGame.TeamColor.WHITE, Move.parse("e1f2"), 3, 4);
+        MovePicker picker = new MovePicker(ordering, 256);
+        picker.reset(board, ChessGame.TeamColor.WHITE, 3, Move.NONE, Move.parse("d2h2"), false);
+
+        List<Integer> order = drain(picker);
+        assertEquals(Move.parse("d2h2"), order.get(0));
+        assertEquals(Move.parse("d1a4"), order.get(1));
+        assertEquals(Move.parse("e1f2"), order.get(2));
+        assertEquals(Move.parse("d2d5"), order.get(order.size() - 1));
+        assertEquals(picker.size(), order.size());
+
+        picker.reset(board, ChessGame.TeamColor.WHITE, 3, Move.NONE, Move.NONE, true);
+        assertEquals(List.of(Move.parse("d1a4")), drain(picker));
+    }
+
+    @Test
+    @DisplayName("Quiet moves are ordered by history")
+    void history() {
+        ChessBoard board = ChessGame.fromFen(KIWIPETE).getBoard();
+        MoveOrdering ordering = new MoveOrdering();
+        ordering.recordCutoff(ChessGame.TeamColor.WHITE, Move.parse("a2a3"), 10, 6);
+        ordering.recordCutoff(ChessGame.TeamColor.WHITE, Move.parse("a1b1"), 11, 2);
+        ordering.recordFailure(ChessGame.TeamColor.WHITE, Move.parse("g2g3"), 8);
+        MovePicker picker = new MovePicker(ordering, 256);
+        picker.reset(board, ChessGame.TeamColor.WHITE, 0, Move.NONE, Move.NONE, false);
+
+        List<Integer> order = drain(picker);
+        assertTrue(order.indexOf(Move.parse("a2a3")) < order.indexOf(Move.parse("a1b1")));
+        assertTrue(order.indexOf(Move.parse("a1b1")) < order.indexOf(Move.parse("a1c1")));
+        assertTrue(order.indexOf(Move.parse("a1c1")) < order.indexOf(Move.parse("g2g3")));
+        assertTrue(ordering.history(ChessGame.TeamColor.WHITE, Move.parse("g2g3")) < 0);
+        assertEquals(0, ordering.history(ChessGame.TeamColor.BLACK, Move.parse("a2a3")));
+    }
+
+    @Test
+    @DisplayName("Every legal move is handed out exactly once, whatever the hints")
+    void everyMoveOnce() {
+        ChessBoard board = ChessGame.fromFen(KIWIPETE).getBoard();
+        MoveList legal = new MoveList();
+        MoveGenerator.legalMoves(board, ChessGame.TeamColor.WHITE, legal);
+        MoveOrdering ordering = new MoveOrdering();
+        // a killer that is a capture here, and one that is not legal here
+        ordering.recordCutoff(ChessGame.TeamColor.WHITE, Move.parse("e5f7"), 2, 3);
+        ordering.recordCutoff(ChessGame.TeamColor.WHITE, Move.parse("a1a8"), 2, 3);
+        MovePicker picker = new MovePicker(ordering, 256);
+
+        int[][] hints = {
+                {Move.NONE, Move.NONE},
+                {Move.parse("e2a6"), Move.parse("e2a6")},
+                {Move.parse("a2a3"), Move.parse("d5e6")},
+                {Move.parse("h1h8"), Move.parse("e5f7")},
+        };
+        for (int[] hint : hints) {
+            picker.reset(board, ChessGame.TeamColor.WHITE, 2, hint[0], hint[1], false);
+            List<Integer> order = drain(picker);
+            Set<Integer> unique = new HashSet<>(order);
+            assertEquals(legal.size(), order.size());
+            assertEquals(legal.size(), unique.size());
+            for (int i = 0; i < legal.size(); i++) {
+                assertTrue(unique.contains(legal.get(i)), Move.toString(legal.get(i)));
+            }
+        }
+    }
+
+    private static List<Integer> drain(MovePicker picker) {
+        List<Integer> order = new ArrayList<>();
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            order.add(move);
+        }
+        return order;
+    }
+}
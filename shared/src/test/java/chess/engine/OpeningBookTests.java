@@ -0,0 +1,101 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static chess.TestGames.move;
+import static chess.TestGames.moves;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Book moves are weighted by how often they were played")
+    void weights() throws Exception {
+        Path path = directory.resolve("book.bin");
+        new OpeningBookBuilder(8)
+                .addGame(moves("e2e4 e7e5 g1f3 b8c6"))
+                .addGame(moves("e2e4 c7c5 g1f3"))
+                .addGame(moves("d2d4 d7d5"))
+                .addGame(moves("e2e4 e7e5 f1c4"))
+                .write(path);
+        OpeningBook book = OpeningBook.open(path);
+
+        List<OpeningBook.Entry> start = book.moves(new ChessGame());
+        assertEquals(List.of(new OpeningBook.Entry(move("e2e4"), 3), new OpeningBook.Entry(move("d2d4"), 1)), start);
+
+        ChessGame game = new ChessGame();
+        game.makeMove(move("e2e4"));
+        assertEquals(List.of(new OpeningBook.Entry(move("e7e5"), 2), new OpeningBook.Entry(move("c7c5"), 1)),
+                book.moves(game));
+        assertEquals(9, book.size());
+    }
+
+    @Test
+    @DisplayName("Positions outside the book have no moves")
+    void missing() throws Exception {
+        Path path = directory.resolve("book.bin");
+        new OpeningBookBuilder(2).addGame(moves("e2e4 e7e5 g1f3")).write(path);
+        OpeningBook book = OpeningBook.open(path);
+
+        ChessGame game = new ChessGame();
+        game.makeMove(move("e2e4"));
+        game.makeMove(move("e7e5"));
+        // beyond maxPly
+        assertTrue(book.moves(game).isEmpty());
+        assertNull(book.pick(game, new Random(1)));
+        assertNull(book.pick(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w"), new Random(1)));
+    }
+
+    @Test
+    @DisplayName("Picks follow the weights")
+    void pick() throws Exception {
+        Path path = directory.resolve("book.bin");
+        OpeningBookBuilder builder = new OpeningBookBuilder(1);
+        for (int i = 0; i < 9; i++) {
+            builder.addGame(moves("e2e4"));
+        }
+        builder.addGame(moves("d2d4")).write(path);
+        OpeningBook book = OpeningBook.open(path);
+
+        Random random = new Random(7);
+        int e4 = 0;
+        for (int i = 0; i < 1000; i++) {
+            ChessMove pick = book.pick(new ChessGame(), random);
+            assertNotNull(pick);
+            if (pick.equals(move("e2e4"))) {
+                e4++;
+            }
+        }
+        assertTrue(e4 > 850 && e4 < 950, "e2e4 picked " + e4 + " times");
+    }
+
+    @Test
+    @DisplayName("Illegal games are rejected whole")
+    void illegalGame() {
+        OpeningBookBuilder builder = new OpeningBookBuilder(8);
+        assertThrows(InvalidMoveException.class, () -> builder.addGame(moves("e2e4 e7e5 e1e3")));
+        assertEquals(0, builder.positions());
+    }
+
+    @Test
+    @DisplayName("Files that are not books are rejected")
+    void notABook() throws IOException {
+        Path path = directory.resolve("other.bin");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IllegalArgumentException.class, () -> OpeningBook.open(path));
+    }
+}
@@ -0,0 +1,81 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelEngineTests {
+
+    @Test
+    @DisplayName("Finds the same mate as a single thread")
+    void mateInTwo() {
+        ChessGame game = ChessGame.fromFen("7k/8/5K2/8/8/8/8/R7 w");
+        SearchResult result = new ParallelEngine(4).search(game, SearchLimits.depth(6));
+
+        assertTrue(result.isMate());
+        assertEquals(2, result.mateIn());
+    }
+
+    @Test
+    @DisplayName("Wins a hanging queen")
+    void winsMaterial() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w");
+        SearchResult result = new ParallelEngine(3).search(game, SearchLimits.depth(4));
+
+        assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null), result.bestMove());
+    }
+
+    @Test
+    @DisplayName("Reports the main thread's iterations with the nodes of every thread")
+    void iterations() {
+        ChessGame game = new ChessGame();
+        List<SearchResult> iterations = new ArrayList<>();
+        SearchResult result = new ParallelEngine(4).search(game, SearchLimits.depth(5), iterations::add);
+
+        assertEquals(5, iterations.size());
+        for (int i = 0; i < iterations.size(); i++) {
+            assertEquals(i + 1, iterations.get(i).depth());
+        }
+        assertEquals(5, result.depth());
+        assertTrue(result.nodes() >= iterations.get(iterations.size() - 1).nodes());
+        assertNotNull(result.bestMove());
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    @DisplayName("A node limit is shared between the threads")
+    void nodeLimit() {
+        SearchResult result = new ParallelEngine(4).search(new ChessGame(), SearchLimits.nodes(20_000));
+        assertTrue(result.nodes() <= 20_000);
+        assertNotNull(result.bestMove());
+    }
+
+    @Test
+    @DisplayName("Cancellation stops every thread")
+    void cancellation() throws Exception {
+        ParallelEngine engine = new ParallelEngine(4);
+        CompletableFuture<SearchResult> search = CompletableFuture.supplyAsync(
+                () -> engine.search(new ChessGame(), SearchLimits.infinite()));
+        Thread.sleep(100);
+        engine.cancel();
+
+        SearchResult result = search.get(5, TimeUnit.SECONDS);
+        assertNotNull(result.bestMove());
+    }
+
+    @Test
+    @DisplayName("At least one thread is required")
+    void threadCount() {
+        assertEquals(1, new ParallelEngine(1).threads());
+        assertThrows(IllegalArgumentException.class, () -> new ParallelEngine(0));
+    }
+}
@@ -0,0 +1,129 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Generates the three-piece tables once and checks them against known
+ * results. KBNK takes too long for every build, so its test is tagged
+ * {@code slow} and only runs with {@code -Dgroups=slow -DexcludedGroups=}.
+ */
+class TablebaseTests {
+
+    @TempDir
+    static Path directory;
+
+    private static final Map<String, Integer> longestMates = new HashMap<>();
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    static void generate() throws IOException {
+        for (String name : List.of("KQK", "KRK", "KPK")) {
+            TablebaseGenerator generator = new TablebaseGenerator(Ending.of(name), Tablebase.open(directory));
+            generator.run();
+            generator.write(directory.resolve(name + Tablebase.EXTENSION));
+            longestMates.put(name, generator.maxPlies());
+        }
+        tablebase = Tablebase.open(directory);
+    }
+
+    @Test
+    @DisplayName("Longest mates match the known values")
+    void longestMates() {
+        // mate in 10 and in 16 with white to move, one ply more with black to move
+        assertEquals(20, longestMates.get("KQK"));
+        assertEquals(32, longestMates.get("KRK"));
+        assertTrue(tablebase.contains("KPK"));
+    }
+
+    @Test
+    @Tag("slow")
+    @DisplayName("KBNK's longest mate is 33 moves")
+    void bishopAndKnight(@TempDir Path other) throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(Ending.of("KBNK"), Tablebase.open(other));
+        generator.run();
+        // mate in 33 with white to move, one ply more with black to move
+        assertEquals(66, generator.maxPlies());
+    }
+
+    @Test
+    @DisplayName("Only endings that stay drawn after a capture are generated")
+    void unsupportedEndings() {
+        assertThrows(IllegalArgumentException.class, () -> Ending.of("KQRK"));
+        assertThrows(IllegalArgumentException.class, () -> Ending.of("KNK"));
+        assertThrows(IllegalArgumentException.class,
+                () -> TablebaseGenerator.generate(directory, List.of("KQK", "KRPK")));
+    }
+
+    @Test
+    @DisplayName("Mates, stalemates and mirrored colors")
+    void results() {
+        assertEquals(new Tablebase.Result(Tablebase.Outcome.WIN, 1), probe("k7/8/1K6/8/8/8/7Q/8 w"));
+        assertEquals(new Tablebase.Result(Tablebase.Outcome.LOSS, 0), probe("k7/1Q6/1K6/8/8/8/8/8 b"));
+        assertEquals(new Tablebase.Result(Tablebase.Outcome.DRAW, 0), probe("k7/2Q5/1K6/8/8/8/8/8 b"));
+        assertEquals(new Tablebase.Result(Tablebase.Outcome.LOSS, 0), probe("8/8/8/8/8/1k6/1q6/K7 w"));
+        assertEquals(new Tablebase.Result(Tablebase.Outcome.WIN, 1), probe("8/8/8/8/8/1k6/7r/K7 b"));
+    }
+
+    @Test
+    @DisplayName("King and pawn endings")
+    void pawns() {
+        // a king on the sixth rank in front of its pawn wins whoever is to move
+        assertEquals(Tablebase.Outcome.WIN, probe("4k3/8/4K3/4P3/8/8/8/8 w").outcome());
+        assertEquals(Tablebase.Outcome.LOSS, probe("4k3/8/4K3/4P3/8/8/8/8 b").outcome());
+        // a rook pawn with the defending king in the corner is a draw
+        assertEquals(Tablebase.Outcome.DRAW, probe("k7/8/8/8/8/8/P7/K7 w").outcome());
+        // the pawn falls
+        assertEquals(Tablebase.Outcome.DRAW, probe("8/8/8/8/8/3k4/4P3/7K b").outcome());
+    }
+
+    @Test
+    @DisplayName("Best moves mate in exactly the tabled number of plies")
+    void perfectPlay() throws Exception {
+        ChessGame game = ChessGame.fromFen("8/8/8/3k4/8/8/8/R3K3 w");
+        int plies = probe("8/8/8/3k4/8/8/8/R3K3 w").plies();
+        for (int ply = 0; ply < plies; ply++) {
+            ChessMove move = tablebase.bestMove(game);
+            assertNotNull(move, "no move at ply " + ply);
+            game.makeMove(move);
+            assertEquals(plies - ply - 1, tablebase.probe(game).plies(), "after " + Move.toString(Move.of(move)));
+        }
+        assertTrue(game.isInCheckmate(game.getTeamTurn()));
+        assertNull(tablebase.bestMove(game));
+    }
+
+    @Test
+    @DisplayName("Other material is not covered, bare kings are drawn")
+    void coverage() {
+        assertNull(tablebase.probe(new ChessGame()));
+        assertNull(probe("4k3/8/8/8/8/8/8/1B2K1N1 w"));
+        assertEquals(new Tablebase.Result(Tablebase.Outcome.DRAW, 0), probe("4k3/8/8/8/8/8/8/4K3 w"));
+        assertEquals(new Tablebase.Result(Tablebase.Outcome.DRAW, 0), probe("4k3/8/8/8/8/8/8/4K1N1 b"));
+    }
+
+    @Test
+    @DisplayName("Files that are not tables are rejected")
+    void corrupt(@TempDir Path other) throws IOException {
+        Files.write(other.resolve("KQK" + Tablebase.EXTENSION), new byte[32]);
+        assertThrows(IllegalArgumentException.class, () -> Tablebase.open(other));
+    }
+
+    private static Tablebase.Result probe(String fen) {
+        return tablebase.probe(ChessGame.fromFen(fen));
+    }
+}
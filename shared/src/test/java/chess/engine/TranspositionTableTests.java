@@ -0,0 +1,112 @@
+package chess.engine;
+
+import chess.Move;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Stored entries read back unchanged")
+    void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.of(12, 28);
+        table.store(0x1234_5678_9ABC_DEF0L, move, -31_990, 17, TranspositionTable.LOWER);
+
+        long entry = table.probe(0x1234_5678_9ABC_DEF0L);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(-31_990, TranspositionTable.score(entry));
+        assertEquals(17, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+    }
+
+    @Test
+    @DisplayName("A different key in the same slot misses")
+    void otherKeyMisses() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 42;
+        table.store(key, Move.of(1, 18), 10, 3, TranspositionTable.EXACT);
+
+        assertEquals(0, table.probe(key + table.capacity()));
+        assertEquals(0, table.probe(7));
+    }
+
+    @Test
+    @DisplayName("Capacity is a power of two within the requested size")
+    void capacity() {
+        TranspositionTable table = new TranspositionTable(3);
+        assertEquals(1, Integer.bitCount(table.capacity()));
+        assertTrue((long) table.capacity() * 16 <= 3L * 1024 * 1024);
+        assertTrue((long) table.capacity() * 32 > 3L * 1024 * 1024);
+    }
+
+    @Test
+    @DisplayName("Deeper entries of the current search are kept")
+    void replacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 5;
+        long shallow = deep + table.capacity();
+        table.store(deep, Move.of(8, 16), 0, 10, TranspositionTable.EXACT);
+        table.store(shallow, Move.of(9, 17), 0, 2, TranspositionTable.EXACT);
+        assertNotEquals(0, table.probe(deep));
+        assertEquals(0, table.probe(shallow));
+
+        table.newSearch();
+        table.store(shallow, Move.of(9, 17), 0, 2, TranspositionTable.EXACT);
+        assertEquals(0, table.probe(deep));
+        assertNotEquals(0, table.probe(shallow));
+    }
+
+    @Test
+    @DisplayName("A result without a move keeps the stored move")
+    void keepsMove() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.of(6, 21);
+        table.store(99, move, 50, 4, TranspositionTable.LOWER);
+        table.store(99, Move.NONE, -20, 5, TranspositionTable.UPPER);
+
+        long entry = table.probe(99);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(5, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(entry));
+    }
+
+    @Test
+    @DisplayName("Concurrent writers never produce an entry for the wrong key")
+    void concurrentWrites() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        // few slots, many keys: threads constantly overwrite each other
+        int keys = table.capacity() * 4;
+        AtomicInteger mismatches = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long seed = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 2_000_000; i++) {
+                    long key = random.nextInt(keys) + 1;
+                    if (random.nextBoolean()) {
+                        // the stored depth is derived from the key, so a probe can check it
+                        table.store(key, Move.NONE, 0, (int) (key % 200), TranspositionTable.EXACT);
+                    } else {
+                        long entry = table.probe(key);
+                        if (entry != 0 && TranspositionTable.depth(entry) != key % 200) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, mismatches.get());
+    }
+}